@@ -0,0 +1,63 @@
+package org.fluentjdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The in-memory databases that the benchmarks run against
+ */
+public enum BenchmarkDatabase {
+
+    H2("jdbc:h2:mem:bench%d", "integer auto_increment primary key"),
+    HSQLDB("jdbc:hsqldb:mem:bench%d", "integer identity primary key"),
+    SQLITE("jdbc:sqlite:file:bench%d?mode=memory&cache=shared", "integer primary key autoincrement");
+
+    private static final AtomicInteger databaseCount = new AtomicInteger();
+
+    private final String jdbcUrl;
+    private final String integerPk;
+
+    BenchmarkDatabase(String jdbcUrl, String integerPk) {
+        this.jdbcUrl = jdbcUrl;
+        this.integerPk = integerPk;
+    }
+
+    /**
+     * Creates a connection to a new, empty database
+     */
+    public Connection createConnection() throws SQLException {
+        return DriverManager.getConnection(String.format(jdbcUrl, databaseCount.incrementAndGet()), "SA", "");
+    }
+
+    /**
+     * Creates a table with an id column and <code>columnCount</code> varchar columns named <code>c0</code>,
+     * <code>c1</code> and so on. The id column is declared with <code>idType</code>, where
+     * <code>${INTEGER_PK}</code> is an auto increment primary key.
+     */
+    public void createTable(Connection connection, String tableName, String idType, int columnCount) throws SQLException {
+        StringBuilder statement = new StringBuilder("create table " + tableName + " (id " + idType);
+        for (String column : columnNames(columnCount)) {
+            statement.append(", ").append(column).append(" varchar(100)");
+        }
+        createTable(connection, statement.append(")").toString());
+    }
+
+    public static List<String> columnNames(int columnCount) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            result.add("c" + i);
+        }
+        return result;
+    }
+
+    public void createTable(Connection connection, String createTableStatement) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(createTableStatement.replace("${INTEGER_PK}", integerPk));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.fluentjdbc.benchmarks;
+
+import org.fluentjdbc.DatabaseBulkInsertBuilder;
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DatabaseBulkInsertBuilder} with a plain JDBC batch at batch sizes from 10 to 100 000
+ * rows. Each operation inserts one batch, and the <code>rows</code> counter reports rows per second.
+ * Divide <code>gc.alloc.rate.norm</code> by the batch size for the allocation per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class RowCounter {
+        public long rows;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            rows = 0;
+        }
+    }
+
+    @Param({"H2", "HSQLDB", "SQLITE"})
+    public BenchmarkDatabase database;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int batchSize;
+
+    @Param({"2", "8", "32"})
+    public int columnCount;
+
+    private Connection connection;
+
+    private final DatabaseTable table = new DatabaseTableImpl("bench_bulk");
+
+    private List<String> columns;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    private String insertSql;
+
+    private long nextId;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = database.createConnection();
+        columns = BenchmarkDatabase.columnNames(columnCount);
+        database.createTable(connection, "bench_bulk", "integer primary key", columnCount);
+        insertSql = "insert into bench_bulk (id, " + String.join(", ", columns) + ") values (?" + InsertBenchmark.repeat(", ?", columnCount) + ")";
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("delete from bench_bulk");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private List<Long> nextIds() {
+        ids.clear();
+        for (int i = 0; i < batchSize; i++) {
+            ids.add(nextId++);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public void fluentBulkInsert(RowCounter counter) {
+        DatabaseBulkInsertBuilder<Long> insert = table.bulkInsert(nextIds()).setField("id", id -> id);
+        for (String column : columns) {
+            insert.setField(column, id -> column + " of " + id);
+        }
+        insert.execute(connection);
+        counter.rows += batchSize;
+    }
+
+    @Benchmark
+    public void jdbcBatchInsert(RowCounter counter) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(insertSql)) {
+            for (Long id : nextIds()) {
+                stmt.setLong(1, id);
+                for (int i = 0; i < columnCount; i++) {
+                    stmt.setString(i + 2, columns.get(i) + " of " + id);
+                }
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        counter.rows += batchSize;
+    }
+}
@@ -0,0 +1,86 @@
+package org.fluentjdbc.benchmarks;
+
+import org.fluentjdbc.DbContext;
+import org.fluentjdbc.DbContextConnection;
+import org.fluentjdbc.DbTableContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of looking up the thread connection through {@link DbContext}
+ * compared to passing a connection to a plain JDBC query
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DbContextBenchmark {
+
+    @Param({"H2", "HSQLDB"})
+    public BenchmarkDatabase database;
+
+    private final DbContext context = new DbContext();
+
+    private final DbTableContext table = context.table("bench_items");
+
+    private Connection connection;
+
+    private DbContextConnection contextConnection;
+
+    private int nextId;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = database.createConnection();
+        ReadBenchmark.createItems(database, connection);
+        contextConnection = context.startConnection(() -> connection);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contextConnection.close();
+    }
+
+    private int nextId() {
+        nextId = nextId % ReadBenchmark.ROW_COUNT + 1;
+        return nextId;
+    }
+
+    @Benchmark
+    public String contextSingleString() {
+        return table.where("id", nextId()).singleString("name");
+    }
+
+    @Benchmark
+    public String contextNewTableSingleString() {
+        return context.table("bench_items").where("id", nextId()).singleString("name");
+    }
+
+    @Benchmark
+    public String jdbcSingleString() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("select name from bench_items where id = ?")) {
+            stmt.setInt(1, nextId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.fluentjdbc.benchmarks;
+
+import org.fluentjdbc.DatabaseInsertBuilder;
+import org.fluentjdbc.DatabaseInsertWithPkBuilder;
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.DatabaseUpdateBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares single row inserts and updates with plain JDBC. As each operation writes one row,
+ * the throughput is rows per second, and <code>gc.alloc.rate.norm</code> is the allocation per row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertBenchmark {
+
+    private static final int UPDATE_ROWS = 1000;
+
+    @Param({"H2", "HSQLDB", "SQLITE"})
+    public BenchmarkDatabase database;
+
+    @Param({"2", "8", "32"})
+    public int columnCount;
+
+    private Connection connection;
+
+    private final DatabaseTable table = new DatabaseTableImpl("bench_insert");
+
+    private final DatabaseTable generatedKeyTable = new DatabaseTableImpl("bench_generated_key");
+
+    private List<String> columns;
+
+    private String insertSql, generatedKeyInsertSql, updateSql;
+
+    private long nextId;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = database.createConnection();
+        columns = BenchmarkDatabase.columnNames(columnCount);
+        database.createTable(connection, "bench_insert", "integer primary key", columnCount);
+        database.createTable(connection, "bench_generated_key", "${INTEGER_PK}", columnCount);
+        insertSql = "insert into bench_insert (id, " + String.join(", ", columns) + ") values (?" + repeat(", ?", columnCount) + ")";
+        generatedKeyInsertSql = "insert into bench_generated_key (" + String.join(", ", columns) + ") values (?" + repeat(", ?", columnCount - 1) + ")";
+        updateSql = "update bench_insert set " + String.join(" = ?, ", columns) + " = ? where id = ?";
+    }
+
+    /**
+     * Empties the tables and inserts the rows to update, so the tables don't grow during the benchmark
+     */
+    @Setup(Level.Iteration)
+    public void clearTables() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("delete from bench_insert");
+            stmt.executeUpdate("delete from bench_generated_key");
+        }
+        nextId = 1;
+        while (nextId <= UPDATE_ROWS) {
+            jdbcInsert();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void fluentInsert() {
+        DatabaseInsertBuilder insert = table.insert().setField("id", nextId++);
+        for (String column : columns) {
+            insert.setField(column, "value of " + column);
+        }
+        insert.execute(connection);
+    }
+
+    @Benchmark
+    public void jdbcInsert() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(insertSql)) {
+            stmt.setLong(1, nextId++);
+            for (int i = 0; i < columnCount; i++) {
+                stmt.setString(i + 2, "value of " + columns.get(i));
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    public Long fluentInsertWithGeneratedKey() throws SQLException {
+        DatabaseInsertWithPkBuilder<Long> insert = generatedKeyTable.insert().setPrimaryKey("id", (Long) null);
+        for (String column : columns) {
+            insert.setField(column, "value of " + column);
+        }
+        return insert.execute(connection);
+    }
+
+    @Benchmark
+    public long jdbcInsertWithGeneratedKey() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(generatedKeyInsertSql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < columnCount; i++) {
+                stmt.setString(i + 1, "value of " + columns.get(i));
+            }
+            stmt.executeUpdate();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                generatedKeys.next();
+                return generatedKeys.getLong(1);
+            }
+        }
+    }
+
+    @Benchmark
+    public void fluentUpdate() {
+        long id = nextId++ % UPDATE_ROWS + 1;
+        DatabaseUpdateBuilder update = table.where("id", id).update();
+        for (String column : columns) {
+            update.setField(column, "updated " + id);
+        }
+        update.execute(connection);
+    }
+
+    @Benchmark
+    public int jdbcUpdate() throws SQLException {
+        long id = nextId++ % UPDATE_ROWS + 1;
+        try (PreparedStatement stmt = connection.prepareStatement(updateSql)) {
+            for (int i = 0; i < columnCount; i++) {
+                stmt.setString(i + 1, "updated " + id);
+            }
+            stmt.setLong(columnCount + 1, id);
+            return stmt.executeUpdate();
+        }
+    }
+
+    static String repeat(String s, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(s);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package org.fluentjdbc.benchmarks;
+
+import org.fluentjdbc.DatabaseColumnReference;
+import org.fluentjdbc.DatabaseJoinedQueryBuilder;
+import org.fluentjdbc.DatabaseTableAlias;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DatabaseJoinedQueryBuilder} with a handwritten join of a chain of 2 to 5 tables,
+ * where each row in a table refers to the row with the same id in the next table
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinBenchmark {
+
+    private static final int ROW_COUNT = 100;
+
+    @Param({"H2", "HSQLDB"})
+    public BenchmarkDatabase database;
+
+    @Param({"2", "3", "4", "5"})
+    public int tableCount;
+
+    private Connection connection;
+
+    private DatabaseTableAlias[] aliases;
+
+    private String joinSql;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = database.createConnection();
+        aliases = new DatabaseTableAlias[tableCount];
+        StringBuilder sql = new StringBuilder("select * from bench_join_0 t0");
+        for (int i = 0; i < tableCount; i++) {
+            database.createTable(connection, "create table bench_join_" + i + " (id integer primary key, next_id integer, name varchar(100) not null)");
+            try (PreparedStatement stmt = connection.prepareStatement("insert into bench_join_" + i + " values (?, ?, ?)")) {
+                for (int id = 1; id <= ROW_COUNT; id++) {
+                    stmt.setInt(1, id);
+                    stmt.setInt(2, id);
+                    stmt.setString(3, "table " + i + " row " + id);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            aliases[i] = new DatabaseTableImpl("bench_join_" + i).alias("t" + i);
+            if (i > 0) {
+                sql.append(" inner join bench_join_").append(i).append(" t").append(i)
+                        .append(" on t").append(i - 1).append(".next_id = t").append(i).append(".id");
+            }
+        }
+        joinSql = sql.toString();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<String> fluentJoin() {
+        DatabaseJoinedQueryBuilder query = null;
+        for (int i = 1; i < tableCount; i++) {
+            DatabaseColumnReference from = aliases[i - 1].column("next_id");
+            DatabaseColumnReference to = aliases[i].column("id");
+            query = query == null ? aliases[0].join(from, to) : query.join(from, to);
+        }
+        DatabaseColumnReference first = aliases[0].column("name");
+        DatabaseColumnReference last = aliases[tableCount - 1].column("name");
+        return query.unordered().list(connection, row -> row.getString(first) + row.getString(last));
+    }
+
+    @Benchmark
+    public List<String> jdbcJoin() throws SQLException {
+        int lastNameColumn = 3 * tableCount;
+        try (PreparedStatement stmt = connection.prepareStatement(joinSql)) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<String> result = new ArrayList<>();
+                while (rs.next()) {
+                    result.add(rs.getString(3) + rs.getString(lastNameColumn));
+                }
+                return result;
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.fluentjdbc.benchmarks;
+
+import org.fluentjdbc.DatabaseRow;
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link org.fluentjdbc.DatabaseTableQueryBuilder#list} and <code>singleObject</code>, and
+ * the {@link DatabaseRow} accessors, with the same queries written with plain JDBC
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+    static final int ROW_COUNT = 1000;
+    static final int CATEGORY_COUNT = 10;
+
+    public static class Item {
+        final long id;
+        final String name;
+        final Instant createdAt;
+
+        Item(long id, String name, Instant createdAt) {
+            this.id = id;
+            this.name = name;
+            this.createdAt = createdAt;
+        }
+    }
+
+    public static class WideItem {
+        final long id;
+        final int category;
+        final String name;
+        final double price;
+        final boolean active;
+        final Instant createdAt;
+
+        WideItem(long id, int category, String name, double price, boolean active, Instant createdAt) {
+            this.id = id;
+            this.category = category;
+            this.name = name;
+            this.price = price;
+            this.active = active;
+            this.createdAt = createdAt;
+        }
+    }
+
+    @Param({"H2", "HSQLDB"})
+    public BenchmarkDatabase database;
+
+    private Connection connection;
+
+    private final DatabaseTable table = new DatabaseTableImpl("bench_items");
+
+    private int nextId;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = database.createConnection();
+        createItems(database, connection);
+    }
+
+    static void createItems(BenchmarkDatabase database, Connection connection) throws SQLException {
+        database.createTable(connection, "create table bench_items (id integer primary key, category integer not null, "
+                + "name varchar(100) not null, price double not null, active boolean not null, created_at timestamp not null)");
+        try (PreparedStatement stmt = connection.prepareStatement("insert into bench_items values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= ROW_COUNT; i++) {
+                stmt.setInt(1, i);
+                stmt.setInt(2, i % CATEGORY_COUNT);
+                stmt.setString(3, "item number " + i);
+                stmt.setDouble(4, i * 1.25);
+                stmt.setBoolean(5, i % 2 == 0);
+                stmt.setTimestamp(6, new Timestamp(1_500_000_000_000L + i * 1000L));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private int nextId() {
+        nextId = nextId % ROW_COUNT + 1;
+        return nextId;
+    }
+
+    @Benchmark
+    public List<Item> fluentList() {
+        return table.where("category", 3).orderBy("id").list(connection, ReadBenchmark::toItem);
+    }
+
+    @Benchmark
+    public List<Item> jdbcList() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("select * from bench_items where category = ? order by id")) {
+            stmt.setInt(1, 3);
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<Item> result = new ArrayList<>();
+                while (rs.next()) {
+                    result.add(new Item(rs.getLong("id"), rs.getString("name"), rs.getTimestamp("created_at").toInstant()));
+                }
+                return result;
+            }
+        }
+    }
+
+    @Benchmark
+    public Item fluentSingleObject() {
+        return table.where("id", nextId()).singleObject(connection, ReadBenchmark::toItem);
+    }
+
+    @Benchmark
+    public Item jdbcSingleObject() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("select * from bench_items where id = ?")) {
+            stmt.setInt(1, nextId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Item result = new Item(rs.getLong("id"), rs.getString("name"), rs.getTimestamp("created_at").toInstant());
+                if (rs.next()) {
+                    throw new IllegalStateException("More than one row");
+                }
+                return result;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<WideItem> fluentRowAccessors() {
+        return table.query().unordered().list(connection, row -> new WideItem(
+                row.getLong("id", 0), row.getInt("category", 0), row.getString("name"),
+                row.getDouble("price", 0), row.getBoolean("active"), row.getInstant("created_at")));
+    }
+
+    @Benchmark
+    public List<WideItem> jdbcRowAccessors() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("select * from bench_items")) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                List<WideItem> result = new ArrayList<>();
+                while (rs.next()) {
+                    result.add(new WideItem(rs.getLong("id"), rs.getInt("category"), rs.getString("name"),
+                            rs.getDouble("price"), rs.getBoolean("active"), rs.getTimestamp("created_at").toInstant()));
+                }
+                return result;
+            }
+        }
+    }
+
+    private static Item toItem(DatabaseRow row) throws SQLException {
+        return new Item(row.getLong("id", 0), row.getString("name"), row.getInstant("created_at"));
+    }
+}
@@ -0,0 +1,120 @@
+package org.fluentjdbc.benchmarks;
+
+import org.fluentjdbc.DatabaseSaveBuilder;
+import org.fluentjdbc.DatabaseSaveResult;
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the three {@link DatabaseSaveBuilder} variants when the save results in an insert,
+ * an update or no change. Each operation saves one row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+
+    private static final int EXISTING_ROWS = 1000;
+
+    public enum Variant {
+        GENERATED_LONG, NO_GENERATED_KEYS, UUID
+    }
+
+    @Param({"H2", "HSQLDB", "SQLITE"})
+    public BenchmarkDatabase database;
+
+    @Param({"GENERATED_LONG", "NO_GENERATED_KEYS", "UUID"})
+    public Variant variant;
+
+    @Param({"INSERTED", "UPDATED", "UNCHANGED"})
+    public DatabaseSaveResult.SaveStatus path;
+
+    @Param({"2", "8", "32"})
+    public int columnCount;
+
+    private Connection connection;
+
+    private final DatabaseTable table = new DatabaseTableImpl("bench_save");
+
+    private List<String> columns;
+
+    private final List<Object> existingIds = new ArrayList<>();
+
+    private long nextId;
+
+    private long counter;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = database.createConnection();
+        columns = BenchmarkDatabase.columnNames(columnCount);
+        String idType = variant == Variant.UUID ? "uuid primary key"
+                : variant == Variant.GENERATED_LONG ? "${INTEGER_PK}" : "integer primary key";
+        database.createTable(connection, "bench_save", idType, columnCount);
+    }
+
+    @Setup(Level.Iteration)
+    public void insertExistingRows() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("delete from bench_save");
+        }
+        existingIds.clear();
+        nextId = 1;
+        for (int i = 0; i < EXISTING_ROWS; i++) {
+            existingIds.add(saveBuilder(null, "value").execute(connection).getId());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public DatabaseSaveResult<?> save() throws SQLException {
+        counter++;
+        Object id = path == DatabaseSaveResult.SaveStatus.INSERTED ? null : existingIds.get((int) (counter % EXISTING_ROWS));
+        String value = path == DatabaseSaveResult.SaveStatus.UPDATED ? "value " + counter : "value";
+        return saveBuilder(id, value).execute(connection);
+    }
+
+    private DatabaseSaveBuilder<?> saveBuilder(@Nullable Object id, String value) {
+        DatabaseSaveBuilder<?> builder;
+        if (variant == Variant.UUID) {
+            builder = table.newSaveBuilderWithUUID("id", (UUID) id);
+        } else if (variant == Variant.GENERATED_LONG) {
+            builder = table.newSaveBuilder("id", (Long) id);
+        } else {
+            builder = table.newSaveBuilderNoGeneratedKeys("id", id != null ? (Long) id : nextId++);
+        }
+        for (String column : columns) {
+            builder.setField(column, value);
+        }
+        return builder;
+    }
+}
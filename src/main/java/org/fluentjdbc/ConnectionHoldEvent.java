@@ -0,0 +1,67 @@
+package org.fluentjdbc;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Describes how a {@link DbContextConnection} used a physical connection from it was
+ * acquired until it was closed. Durations are measured with {@link System#nanoTime()}.
+ */
+@ParametersAreNonnullByDefault
+public class ConnectionHoldEvent {
+
+    private final long acquireNanos;
+    private final long holdNanos;
+    private final long idleNanos;
+    private final int statementCount;
+    @Nullable
+    private final Throwable allocationStack;
+
+    ConnectionHoldEvent(long acquireNanos, long holdNanos, long idleNanos, int statementCount, @Nullable Throwable allocationStack) {
+        this.acquireNanos = acquireNanos;
+        this.holdNanos = holdNanos;
+        this.idleNanos = idleNanos;
+        this.statementCount = statementCount;
+        this.allocationStack = allocationStack;
+    }
+
+    /**
+     * The time spent waiting for the {@link ConnectionSupplier}
+     */
+    public long getAcquireNanos() {
+        return acquireNanos;
+    }
+
+    /**
+     * The time from the connection was acquired until it was released
+     */
+    public long getHoldNanos() {
+        return holdNanos;
+    }
+
+    /**
+     * The part of the hold time where no statement was executing
+     */
+    public long getIdleNanos() {
+        return idleNanos;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    /**
+     * Where {@link DbContext#startConnection} was called, if this connection was sampled
+     * with {@link DbContext#allocationStackSampling(double)}
+     */
+    @Nullable
+    public Throwable getAllocationStack() {
+        return allocationStack;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{holdMillis=" + holdNanos / 1_000_000 + ", idleMillis=" + idleNanos / 1_000_000
+                + ", acquireMillis=" + acquireNanos / 1_000_000 + ", statementCount=" + statementCount + "}";
+    }
+}
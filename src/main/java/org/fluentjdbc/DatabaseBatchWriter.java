@@ -0,0 +1,149 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.dialect.DatabaseDialect;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Writes rows as arrays of column values with batched statements. Used when copying
+ * rows between databases, where the values are read with {@link java.sql.ResultSet#getObject(int)}.
+ */
+@ParametersAreNonnullByDefault
+class DatabaseBatchWriter extends DatabaseStatement {
+
+    private final String tableName;
+    private final String idColumn;
+    private final List<String> columns;
+    private final int idIndex;
+
+    DatabaseBatchWriter(String tableName, String idColumn, List<String> columns) {
+        this.tableName = tableName;
+        this.idColumn = idColumn;
+        this.columns = columns;
+        this.idIndex = indexOfIgnoreCase(columns, idColumn);
+        if (idIndex < 0) {
+            throw new IllegalArgumentException("Column {" + idColumn + "} is not present in " + columns);
+        }
+    }
+
+    Object getId(Object[] row) {
+        return row[idIndex];
+    }
+
+    /**
+     * Updates the rows which already exist in the target and inserts the rest.
+     * Returns the number of updated rows.
+     */
+    int upsert(Connection connection, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        List<Object> ids = new ArrayList<>();
+        for (Object[] row : rows) {
+            ids.add(getId(row));
+        }
+        Set<Object> existingIds = new HashSet<>(new DatabaseTableImpl(tableName)
+                .whereIn(idColumn, ids).select(idColumn).unordered()
+                .list(connection, row -> normalizeId(row.getObject(idColumn))));
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (Object[] row : rows) {
+            (existingIds.contains(normalizeId(getId(row))) ? updates : inserts).add(row);
+        }
+        update(connection, updates);
+        insert(connection, inserts);
+        return updates.size();
+    }
+
+    /**
+     * Different drivers return the same key as different types, e.g. Integer, Long or
+     * BigDecimal for numbers and UUID or String for uuids, so ids read from the source
+     * and the target are compared as longs or strings
+     */
+    static Object normalizeId(Object id) {
+        if (id instanceof Integer || id instanceof Long || id instanceof Short || id instanceof Byte || id instanceof BigInteger) {
+            return ((Number) id).longValue();
+        } else if (id instanceof BigDecimal) {
+            BigDecimal decimal = ((BigDecimal) id).stripTrailingZeros();
+            return decimal.scale() <= 0 ? (Object) decimal.longValue() : decimal.toPlainString();
+        }
+        return id != null ? id.toString() : null;
+    }
+
+    void insert(Connection connection, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        executeBatch(connection, createInsertSql(tableName, columns), rows, false);
+    }
+
+    void update(Connection connection, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        List<String> updateColumns = new ArrayList<>(columns);
+        updateColumns.remove(idIndex);
+        String updateStatement = "update " + tableName
+                + " set " + join(" = ?,", updateColumns) + " = ?"
+                + " where " + idColumn + " = ?";
+        executeBatch(connection, updateStatement, rows, true);
+    }
+
+    void delete(Connection connection, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String deleteStatement = "delete from " + tableName + " where " + idColumn + " = ?";
+        executeStatement(connection, deleteStatement, 1, ids.size(), Connection::prepareStatement, (statement, timing) -> {
+            DatabaseDialect dialect = getDialect(connection);
+            for (Object id : ids) {
+                bindParameter(statement, 1, id, dialect);
+                statement.addBatch();
+            }
+            timing.executing();
+            timing.setRowCount(updateCount(statement.executeBatch()));
+            timing.fetching();
+            return null;
+        });
+    }
+
+    private void executeBatch(Connection connection, String query, List<Object[]> rows, boolean idLast) {
+        executeStatement(connection, query, columns.size(), rows.size(), Connection::prepareStatement, (statement, timing) -> {
+            DatabaseDialect dialect = getDialect(connection);
+            for (Object[] row : rows) {
+                int index = 1;
+                for (int i = 0; i < row.length; i++) {
+                    if (!idLast || i != idIndex) {
+                        bindParameter(statement, index++, row[i], dialect);
+                    }
+                }
+                if (idLast) {
+                    bindParameter(statement, index, row[idIndex], dialect);
+                }
+                statement.addBatch();
+            }
+            timing.executing();
+            timing.setRowCount(updateCount(statement.executeBatch()));
+            timing.fetching();
+            return null;
+        });
+    }
+
+    static int indexOfIgnoreCase(List<String> columns, String column) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).equalsIgnoreCase(column)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
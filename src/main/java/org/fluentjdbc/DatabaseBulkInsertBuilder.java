@@ -1,10 +1,8 @@
 package org.fluentjdbc;
 
-import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.dialect.DatabaseDialect;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,20 +28,21 @@ public class DatabaseBulkInsertBuilder<T> extends DatabaseStatement {
 
     public void execute(Connection connection) {
         String insertStatement = createInsertSql(table.getTableName(), fields.keySet());
-        try (PreparedStatement statement = connection.prepareStatement(insertStatement)) {
+        executeStatement(connection, insertStatement, fields.size(), objects.size(), Connection::prepareStatement, (statement, timing) -> {
+            DatabaseDialect dialect = getDialect(connection);
             for (T object : objects) {
                 int columnIndex = 1;
                 for (Function<T, Object> f : fields.values()) {
-                    bindParameter(statement, columnIndex++, f.apply(object));
+                    bindParameter(statement, columnIndex++, f.apply(object), dialect);
                 }
                 statement.addBatch();
             }
 
-            statement.executeBatch();
-        } catch (SQLException e) {
-            throw ExceptionUtil.softenCheckedException(e);
-        }
-
+            timing.executing();
+            timing.setRowCount(updateCount(statement.executeBatch()));
+            timing.fetching();
+            return null;
+        });
     }
 
     public DatabaseBulkInsertBuilderWithPk<T> generatePrimaryKeys(BiConsumer<T, Long> consumer) {
@@ -3,13 +3,12 @@ package org.fluentjdbc;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
-import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.dialect.DatabaseDialect;
 
 public class DatabaseBulkInsertBuilderWithPk<T> extends DatabaseStatement {
 
@@ -32,15 +31,19 @@ public class DatabaseBulkInsertBuilderWithPk<T> extends DatabaseStatement {
 
     public void execute(Connection connection) {
         String insertStatement = createInsertSql(table.getTableName(), fields.keySet());
-        try (PreparedStatement statement = connection.prepareStatement(insertStatement, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        executeStatement(connection, insertStatement, fields.size(), objects.size(),
+                (c, query) -> c.prepareStatement(query, PreparedStatement.RETURN_GENERATED_KEYS), (statement, timing) -> {
+            DatabaseDialect dialect = getDialect(connection);
             for (T object : objects) {
                 int columnIndex = 1;
                 for (Function<T, Object> f : fields.values()) {
-                    bindParameter(statement, columnIndex++, f.apply(object));
+                    bindParameter(statement, columnIndex++, f.apply(object), dialect);
                 }
                 statement.addBatch();
             }
-            statement.executeBatch();
+            timing.executing();
+            timing.setRowCount(updateCount(statement.executeBatch()));
+            timing.fetching();
 
             ResultSet generatedKeys = statement.getGeneratedKeys();
             int i=0;
@@ -51,10 +54,7 @@ public class DatabaseBulkInsertBuilderWithPk<T> extends DatabaseStatement {
                 }
                 primaryKeyCallback.accept(object, generatedKeys.getLong(1));
             }
-
-        } catch (SQLException e) {
-            throw ExceptionUtil.softenCheckedException(e);
-        }
-
+            return null;
+        });
     }
 }
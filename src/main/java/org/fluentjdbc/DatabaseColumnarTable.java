@@ -0,0 +1,604 @@
+package org.fluentjdbc;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * An in-memory copy of a query result stored column by column. Numeric, decimal and
+ * temporal columns are stored in primitive arrays, strings are dictionary encoded and
+ * nulls are tracked in a bitmap per column, so a row costs a few bytes per column instead
+ * of an object per row and a boxed object per value.
+ *
+ * <p>Rows are addressed by their index from 0 to {@link #getRowCount()}. {@link #filter},
+ * {@link #parallelForEach}, {@link #aggregate} and {@link #statistics} process rows
+ * in parallel on the common {@link java.util.concurrent.ForkJoinPool}.</p>
+ */
+@ParametersAreNonnullByDefault
+public class DatabaseColumnarTable {
+
+    public enum ColumnType {
+        LONG, DOUBLE, DECIMAL, TIMESTAMP, DATE, STRING, OBJECT
+    }
+
+    private final List<Column> columns;
+    private final Map<String, Column> columnsByName = new HashMap<>();
+    private final int rowCount;
+
+    private DatabaseColumnarTable(List<Column> columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+        for (Column column : columns) {
+            columnsByName.putIfAbsent(column.getName().toUpperCase(), column);
+        }
+    }
+
+    /**
+     * Reads all remaining rows of the result set
+     */
+    public static DatabaseColumnarTable read(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        int initialCapacity = Math.max(resultSet.getFetchSize(), 16);
+        List<Column> columns = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            columns.add(createColumn(metaData, i, initialCapacity));
+        }
+        int rowCount = 0;
+        while (resultSet.next()) {
+            for (Column column : columns) {
+                column.read(resultSet, rowCount);
+            }
+            rowCount++;
+        }
+        return new DatabaseColumnarTable(columns, rowCount);
+    }
+
+    private static Column createColumn(ResultSetMetaData metaData, int columnIndex, int initialCapacity) throws SQLException {
+        String name = metaData.getColumnName(columnIndex);
+        switch (metaData.getColumnType(columnIndex)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return new LongColumn(name, columnIndex, initialCapacity);
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return new DoubleColumn(name, columnIndex, initialCapacity);
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                int precision = metaData.getPrecision(columnIndex), scale = metaData.getScale(columnIndex);
+                if (precision > 0 && precision <= DecimalColumn.MAX_PRECISION && scale >= 0 && scale <= precision) {
+                    return new DecimalColumn(name, columnIndex, initialCapacity, scale);
+                }
+                return new ObjectColumn(name, columnIndex, initialCapacity);
+            case Types.TIMESTAMP:
+            case Types.TIMESTAMP_WITH_TIMEZONE:
+                return new TimestampColumn(name, columnIndex, initialCapacity);
+            case Types.DATE:
+                return new DateColumn(name, columnIndex, initialCapacity);
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return new StringColumn(name, columnIndex, initialCapacity);
+            default:
+                return new ObjectColumn(name, columnIndex, initialCapacity);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public List<Column> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    public Column getColumn(String columnName) {
+        Column column = columnsByName.get(columnName.toUpperCase());
+        if (column == null) {
+            throw new IllegalArgumentException("Column {" + columnName + "} is not present in " + columnsByName.keySet());
+        }
+        return column;
+    }
+
+    public boolean isNull(int row, String columnName) {
+        return getColumn(columnName).isNull(row);
+    }
+
+    public long getLong(int row, String columnName) {
+        return getColumn(columnName).getLong(row);
+    }
+
+    public double getDouble(int row, String columnName) {
+        return getColumn(columnName).getDouble(row);
+    }
+
+    @Nullable
+    public String getString(int row, String columnName) {
+        return getColumn(columnName).getString(row);
+    }
+
+    @Nullable
+    public Instant getInstant(int row, String columnName) {
+        return getColumn(columnName).getInstant(row);
+    }
+
+    @Nullable
+    public LocalDate getLocalDate(int row, String columnName) {
+        return getColumn(columnName).getLocalDate(row);
+    }
+
+    @Nullable
+    public Object getObject(int row, String columnName) {
+        return getColumn(columnName).getObject(row);
+    }
+
+    /**
+     * Returns the indexes of all rows matching the predicate, evaluated in parallel
+     */
+    public int[] filter(IntPredicate rowPredicate) {
+        return rows().filter(rowPredicate).toArray();
+    }
+
+    public void forEach(IntConsumer rowConsumer) {
+        for (int row = 0; row < rowCount; row++) {
+            rowConsumer.accept(row);
+        }
+    }
+
+    /**
+     * Calls the consumer for each row index in parallel. The consumer must be thread safe.
+     */
+    public void parallelForEach(IntConsumer rowConsumer) {
+        rows().forEach(rowConsumer);
+    }
+
+    /**
+     * Aggregates all rows in parallel, like {@link IntStream#collect}: Each fork-join task
+     * accumulates rows into its own container created by <code>supplier</code>, and the
+     * containers are merged with <code>combiner</code>
+     */
+    public <R> R aggregate(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        return rows().collect(supplier, accumulator, combiner);
+    }
+
+    /**
+     * Returns count, sum, min, max and average of the non-null values in a numeric column
+     */
+    public DoubleSummaryStatistics statistics(String columnName) {
+        Column column = getColumn(columnName);
+        return aggregate(DoubleSummaryStatistics::new, (stats, row) -> {
+            if (!column.isNull(row)) {
+                stats.accept(column.getDouble(row));
+            }
+        }, DoubleSummaryStatistics::combine);
+    }
+
+    private IntStream rows() {
+        return IntStream.range(0, rowCount).parallel();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{rows=" + rowCount + ", columns=" + columns + "}";
+    }
+
+    /**
+     * The values of a single column. The typed accessors throw {@link UnsupportedOperationException}
+     * if the column is not stored in a compatible type: {@link #getLong} and {@link #getDouble}
+     * are only supported for numeric columns, {@link #getInstant} for timestamps and
+     * {@link #getLocalDate} for dates. {@link #getString} and {@link #getObject} work for all columns.
+     */
+    public static abstract class Column {
+        private final String name;
+        private final int columnIndex;
+        private long[] nulls;
+
+        Column(String name, int columnIndex, int initialCapacity) {
+            this.name = name;
+            this.columnIndex = columnIndex;
+            this.nulls = new long[(initialCapacity >> 6) + 1];
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract ColumnType getType();
+
+        public boolean isNull(int row) {
+            int word = row >> 6;
+            return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+        }
+
+        void read(ResultSet resultSet, int row) throws SQLException {
+            if (!readValue(resultSet, columnIndex, row)) {
+                int word = row >> 6;
+                if (word >= nulls.length) {
+                    nulls = Arrays.copyOf(nulls, Math.max(nulls.length * 2, word + 1));
+                }
+                nulls[word] |= 1L << row;
+            }
+        }
+
+        /**
+         * Stores the value of the current row and returns false if it was null
+         */
+        abstract boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException;
+
+        public long getLong(int row) {
+            throw new UnsupportedOperationException(this + " can't be read as long");
+        }
+
+        public double getDouble(int row) {
+            throw new UnsupportedOperationException(this + " can't be read as double");
+        }
+
+        @Nullable
+        public Instant getInstant(int row) {
+            throw new UnsupportedOperationException(this + " can't be read as Instant");
+        }
+
+        @Nullable
+        public LocalDate getLocalDate(int row) {
+            throw new UnsupportedOperationException(this + " can't be read as LocalDate");
+        }
+
+        @Nullable
+        public String getString(int row) {
+            Object value = getObject(row);
+            return value != null ? value.toString() : null;
+        }
+
+        @Nullable
+        public abstract Object getObject(int row);
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[" + name + "]";
+        }
+    }
+
+    private static class LongColumn extends Column {
+        private long[] values;
+
+        LongColumn(String name, int columnIndex, int initialCapacity) {
+            super(name, columnIndex, initialCapacity);
+            values = new long[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.LONG;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = resultSet.getLong(columnIndex);
+            return !resultSet.wasNull();
+        }
+
+        @Override
+        public long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private double[] values;
+
+        DoubleColumn(String name, int columnIndex, int initialCapacity) {
+            super(name, columnIndex, initialCapacity);
+            values = new double[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.DOUBLE;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = resultSet.getDouble(columnIndex);
+            return !resultSet.wasNull();
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return values[row];
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : values[row];
+        }
+    }
+
+    /**
+     * Stores DECIMAL and NUMERIC values with at most {@link #MAX_PRECISION} digits as
+     * the unscaled long, so money columns are read without keeping a BigDecimal per row.
+     * Wider decimals, or decimals with unknown precision, are kept as BigDecimal in an
+     * {@link ObjectColumn} so no digits are lost.
+     */
+    private static class DecimalColumn extends Column {
+        static final int MAX_PRECISION = 18;
+
+        private final int scale;
+        private final double divisor;
+        private long[] unscaledValues;
+
+        DecimalColumn(String name, int columnIndex, int initialCapacity, int scale) {
+            super(name, columnIndex, initialCapacity);
+            this.scale = scale;
+            this.divisor = Math.pow(10, scale);
+            unscaledValues = new long[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.DECIMAL;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == unscaledValues.length) {
+                unscaledValues = Arrays.copyOf(unscaledValues, unscaledValues.length * 2);
+            }
+            if (scale == 0) {
+                unscaledValues[row] = resultSet.getLong(columnIndex);
+                return !resultSet.wasNull();
+            }
+            BigDecimal value = resultSet.getBigDecimal(columnIndex);
+            if (value == null) {
+                return false;
+            }
+            unscaledValues[row] = value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValue();
+            return true;
+        }
+
+        /**
+         * Returns the integer part of the value
+         */
+        @Override
+        public long getLong(int row) {
+            return unscaledValues[row] / (long) divisor;
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return unscaledValues[row] / divisor;
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return isNull(row) ? null : BigDecimal.valueOf(unscaledValues[row], scale);
+        }
+    }
+
+    private static class TimestampColumn extends Column {
+        private long[] epochSeconds;
+        private int[] nanos;
+
+        TimestampColumn(String name, int columnIndex, int initialCapacity) {
+            super(name, columnIndex, initialCapacity);
+            epochSeconds = new long[initialCapacity];
+            nanos = new int[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.TIMESTAMP;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == epochSeconds.length) {
+                epochSeconds = Arrays.copyOf(epochSeconds, epochSeconds.length * 2);
+                nanos = Arrays.copyOf(nanos, nanos.length * 2);
+            }
+            Timestamp timestamp = resultSet.getTimestamp(columnIndex);
+            if (timestamp == null) {
+                return false;
+            }
+            epochSeconds[row] = Math.floorDiv(timestamp.getTime(), 1000);
+            nanos[row] = timestamp.getNanos();
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public Instant getInstant(int row) {
+            return isNull(row) ? null : Instant.ofEpochSecond(epochSeconds[row], nanos[row]);
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return getInstant(row);
+        }
+    }
+
+    private static class DateColumn extends Column {
+        private long[] epochDays;
+
+        DateColumn(String name, int columnIndex, int initialCapacity) {
+            super(name, columnIndex, initialCapacity);
+            epochDays = new long[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.DATE;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, epochDays.length * 2);
+            }
+            Date date = resultSet.getDate(columnIndex);
+            if (date == null) {
+                return false;
+            }
+            epochDays[row] = date.toLocalDate().toEpochDay();
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public LocalDate getLocalDate(int row) {
+            return isNull(row) ? null : LocalDate.ofEpochDay(epochDays[row]);
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return getLocalDate(row);
+        }
+    }
+
+    /**
+     * Stores each distinct string once and an int code per row
+     */
+    private static class StringColumn extends Column {
+        private int[] codes;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> dictionaryCodes = new HashMap<>();
+
+        StringColumn(String name, int columnIndex, int initialCapacity) {
+            super(name, columnIndex, initialCapacity);
+            codes = new int[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.STRING;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == codes.length) {
+                codes = Arrays.copyOf(codes, codes.length * 2);
+            }
+            String value = resultSet.getString(columnIndex);
+            if (value == null) {
+                return false;
+            }
+            Integer code = dictionaryCodes.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.add(value);
+                dictionaryCodes.put(value, code);
+            }
+            codes[row] = code;
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public String getString(int row) {
+            return isNull(row) ? null : dictionary.get(codes[row]);
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return getString(row);
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(String name, int columnIndex, int initialCapacity) {
+            super(name, columnIndex, initialCapacity);
+            values = new Object[initialCapacity];
+        }
+
+        @Override
+        public ColumnType getType() {
+            return ColumnType.OBJECT;
+        }
+
+        @Override
+        boolean readValue(ResultSet resultSet, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = resultSet.getObject(columnIndex);
+            return values[row] != null;
+        }
+
+        @Override
+        public long getLong(int row) {
+            return toNumber(row).longValue();
+        }
+
+        @Override
+        public double getDouble(int row) {
+            return toNumber(row).doubleValue();
+        }
+
+        private Number toNumber(int row) {
+            Object value = values[row];
+            if (value instanceof Number) {
+                return (Number) value;
+            } else if (value == null) {
+                return BigDecimal.ZERO;
+            }
+            throw new UnsupportedOperationException(this + " is not numeric: " + value.getClass());
+        }
+
+        @Nullable
+        @Override
+        public Object getObject(int row) {
+            return values[row];
+        }
+    }
+}
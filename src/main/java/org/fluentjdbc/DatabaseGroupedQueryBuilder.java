@@ -0,0 +1,42 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.DatabaseTable.RowMapper;
+
+import java.sql.Connection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Calculates aggregates for each distinct combination of the <code>group by</code> columns
+ * in a single statement, without retrieving the grouped rows.
+ */
+@ParametersAreNonnullByDefault
+public abstract class DatabaseGroupedQueryBuilder extends DatabaseStatement {
+
+    private final List<String> groupByColumns;
+
+    DatabaseGroupedQueryBuilder(List<String> groupByColumns) {
+        this.groupByColumns = groupByColumns;
+    }
+
+    /**
+     * Returns the number of rows for each group, keyed by the result of mapping
+     * the group by columns with <code>keyMapper</code>
+     */
+    public <KEY> Map<KEY, Long> count(Connection connection, RowMapper<KEY> keyMapper) {
+        String columns = join(", ", groupByColumns);
+        return query(connection, columns + ", count(*)", " group by " + columns, result -> {
+            Map<KEY, Long> counts = new LinkedHashMap<>();
+            while (result.next()) {
+                counts.put(result.mapRow(keyMapper), ((Number) result.getObject(groupByColumns.size() + 1)).longValue());
+            }
+            return counts;
+        });
+    }
+
+    abstract <T> T query(Connection connection, String columns, String groupByClause, DatabaseResult.ResultMapper<T> resultMapper);
+
+}
@@ -39,33 +39,21 @@ public class DatabaseInsertWithPkBuilder<T> extends DatabaseStatement {
         }
     }
 
-    private void insertWithPregeneratedKey(Connection connection) throws SQLException {
+    private void insertWithPregeneratedKey(Connection connection) {
         assert idValue != null;
-        long startTime = System.currentTimeMillis();
-        String query = createInsertStatement();
-        logger.trace(query);
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            bindParameters(stmt, insertBuilder.getParameters());
-            stmt.executeUpdate();
-        } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
-        }
+        executeUpdate(createInsertStatement(), insertBuilder.getParameters(), connection);
     }
 
     @Nonnull
-    private T insertWithAutogeneratedKey(Connection connection) throws SQLException {
-        long startTime = System.currentTimeMillis();
-        String query = createInsertStatement();
-        logger.trace(query);
-        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
-            bindParameters(stmt, insertBuilder.getParameters());
-            stmt.executeUpdate();
-            return getGeneratedKey(stmt);
-        } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
-        }
+    private T insertWithAutogeneratedKey(Connection connection) {
+        return executeStatement(connection, createInsertStatement(), insertBuilder.getParameters(),
+                (c, query) -> c.prepareStatement(query, Statement.RETURN_GENERATED_KEYS),
+                (stmt, timing) -> {
+                    timing.executing();
+                    timing.setRowCount(stmt.executeUpdate());
+                    timing.fetching();
+                    return getGeneratedKey(stmt);
+                });
     }
 
     // TODO: This doesn't work for Android - we need to do select last_insert_rowid() explicitly (or update SQLDroid)
@@ -1,15 +1,18 @@
 package org.fluentjdbc;
 
-import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
 
 import javax.annotation.Nullable;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,9 +21,12 @@ import java.util.stream.Collectors;
 public class DatabaseJoinedQueryBuilder extends DatabaseStatement implements DatabaseQueryBuilder<DatabaseJoinedQueryBuilder>, DatabaseListableQueryBuilder {
     private final DatabaseTableAlias table;
     private List<JoinedTable> joinedTables = new ArrayList<>();
+    private List<DatabaseColumnReference> columns = new ArrayList<>();
     private List<String> conditions = new ArrayList<>();
     private List<Object> parameters = new ArrayList<>();
     private List<String> orderByClauses = new ArrayList<>();
+    @Nullable
+    private Integer limit;
 
     public DatabaseJoinedQueryBuilder(DatabaseTableAlias table) {
         this.table = table;
@@ -64,9 +70,7 @@ public class DatabaseJoinedQueryBuilder extends DatabaseStatement implements Dat
         if (parameters.isEmpty()) {
             throw new IllegalArgumentException("Can't do " + fieldName + " IN (....) with empty list");
         }
-        whereExpression(fieldName + " IN (" + join(",", repeat("?", parameters.size())) + ")");
-        this.parameters.addAll(parameters);
-        return this;
+        return whereExpression(fieldName + " IN (?)", new InListParameter(parameters));
     }
 
     @Override
@@ -93,41 +97,188 @@ public class DatabaseJoinedQueryBuilder extends DatabaseStatement implements Dat
 
     @Override
     public <T> T singleObject(Connection connection, DatabaseTable.RowMapper<T> mapper) {
-        long startTime = System.currentTimeMillis();
-        String query = createSelectStatement();
-        logger.trace(query);
-        try(PreparedStatement stmt = connection.prepareStatement(query)) {
-            bindParameters(stmt, parameters);
-            try (DatabaseResult result = createResult(stmt.executeQuery())) {
-                return result.single(mapper);
-            }
-        } catch (SQLException e) {
-            throw ExceptionUtil.softenCheckedException(e);
-        } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
-        }
+        return query(connection, selectedColumns(), orderByClause(), minLimit(limit, 2), this::createResult, result -> result.single(mapper));
     }
 
     @Override
     public <T> List<T> list(Connection connection, DatabaseTable.RowMapper<T> mapper) {
-        long startTime = System.currentTimeMillis();
-        String query = createSelectStatement();
-        logger.trace(query);
-        try(PreparedStatement stmt = connection.prepareStatement(query)) {
-            bindParameters(stmt, parameters);
-            try (DatabaseResult result = createResult(stmt.executeQuery())) {
-                return result.list(mapper);
+        if (limit != null || !orderByClauses.isEmpty()) {
+            return query(connection, selectedColumns(), orderByClause(), limit, this::createResult, result -> result.list(mapper));
+        }
+        List<List<Object>> chunks = splitInLists(connection, parameters);
+        if (chunks.size() == 1) {
+            return query(connection, selectedColumns(), "", null, parameters, this::createResult, result -> result.list(mapper));
+        }
+        List<T> rows = new ArrayList<>();
+        for (List<Object> chunk : chunks) {
+            rows.addAll(query(connection, selectedColumns(), "", null, chunk, this::createResult, result -> result.list(mapper)));
+        }
+        return rows;
+    }
+
+    @Override
+    public LongArrayList longColumn(Connection connection, String fieldName) {
+        return query(connection, selectedColumns(), orderByClause(), limit, DatabaseResult::new, result -> result.longColumn(fieldName));
+    }
+
+    @Override
+    public IntArrayList intColumn(Connection connection, String fieldName) {
+        return query(connection, selectedColumns(), orderByClause(), limit, DatabaseResult::new, result -> result.intColumn(fieldName));
+    }
+
+    @Override
+    public DoubleArrayList doubleColumn(Connection connection, String fieldName) {
+        return query(connection, selectedColumns(), orderByClause(), limit, DatabaseResult::new, result -> result.doubleColumn(fieldName));
+    }
+
+    @Override
+    public void forEach(Connection connection, DatabaseTable.RowConsumer consumer) {
+        List<List<Object>> chunks = limit != null || !orderByClauses.isEmpty()
+                ? Collections.singletonList(parameters) : splitInLists(connection, parameters);
+        for (List<Object> chunk : chunks) {
+            query(connection, selectedColumns(), orderByClause(), limit, chunk, this::createResult, result -> {
+                result.forEach(consumer);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public DatabaseColumnarTable columnar(Connection connection) {
+        return query(connection, selectedColumns(), orderByClause(), limit, DatabaseResult::new, DatabaseResult::columnar);
+    }
+
+    @Nullable
+    @Override
+    public <T> T first(Connection connection, DatabaseTable.RowMapper<T> mapper) {
+        return query(connection, selectedColumns(), orderByClause(), minLimit(limit, 1), this::createResult, result -> result.first(mapper));
+    }
+
+    /**
+     * Returns the number of matching rows with <code>select count(*)</code>
+     */
+    public long count(Connection connection) {
+        long count = 0;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            Number chunkCount = aggregate(connection, "count(*)", chunk);
+            count += chunkCount != null ? chunkCount.longValue() : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if any row matches the query. Only a single row is requested from the database.
+     */
+    public boolean exists(Connection connection) {
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            if (query(connection, "1", "", 1, chunk, DatabaseResult::new, DatabaseResult::next)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    public Number min(Connection connection, DatabaseColumnReference column) {
+        Number min = null;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            min = minOf(min, aggregate(connection, "min(" + column.getQualifiedColumnName() + ")", chunk));
+        }
+        return min;
+    }
+
+    @Nullable
+    public Number max(Connection connection, DatabaseColumnReference column) {
+        Number max = null;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            max = maxOf(max, aggregate(connection, "max(" + column.getQualifiedColumnName() + ")", chunk));
+        }
+        return max;
+    }
+
+    @Nullable
+    public Number sum(Connection connection, DatabaseColumnReference column) {
+        Number sum = null;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            sum = addSums(sum, aggregate(connection, "sum(" + column.getQualifiedColumnName() + ")", chunk));
+        }
+        return sum;
+    }
+
+    /**
+     * Groups the matching rows by the specified columns in order to return aggregates per group.
+     * The key mapper can look up the group by columns with {@link DatabaseRow#getString(DatabaseColumnReference)}.
+     */
+    public DatabaseGroupedQueryBuilder groupBy(DatabaseColumnReference... columns) {
+        List<DatabaseColumnReference> groupByColumns = Arrays.asList(columns);
+        return new DatabaseGroupedQueryBuilder(groupByColumns.stream().map(DatabaseColumnReference::getQualifiedColumnName).collect(Collectors.toList())) {
+            @Override
+            <T> T query(Connection connection, String columns, String groupByClause, DatabaseResult.ResultMapper<T> resultMapper) {
+                return DatabaseJoinedQueryBuilder.this.query(connection, columns, groupByClause, null,
+                        rs -> createResult(rs, groupByColumns), resultMapper);
             }
-        } catch (SQLException e) {
-            throw ExceptionUtil.softenCheckedException(e);
-        } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
+        };
+    }
+
+    @Nullable
+    private Number aggregate(Connection connection, String expression, List<Object> parameters) {
+        return query(connection, expression, "", null, parameters, DatabaseResult::new,
+                result -> result.next() ? (Number) result.getObject(1) : null);
+    }
+
+    /**
+     * Only retrieve the specified columns instead of <code>select *</code>.
+     * {@link DatabaseRow#getString(DatabaseColumnReference)} will only be able to
+     * look up the selected columns.
+     */
+    public DatabaseJoinedQueryBuilder select(DatabaseColumnReference... columns) {
+        this.columns.addAll(Arrays.asList(columns));
+        return this;
+    }
+
+    @Override
+    public DatabaseJoinedQueryBuilder limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit " + limit);
         }
+        this.limit = limit;
+        return this;
+    }
+
+    private <T> T query(Connection connection, String columns, String suffix, @Nullable Integer limit, DatabaseResult.Factory resultFactory, DatabaseResult.ResultMapper<T> resultMapper) {
+        return query(connection, columns, suffix, limit, parameters, resultFactory, resultMapper);
+    }
+
+    private <T> T query(Connection connection, String columns, String suffix, @Nullable Integer limit, List<Object> parameters,
+                        DatabaseResult.Factory resultFactory, DatabaseResult.ResultMapper<T> resultMapper) {
+        checkParameterCount(connection, parameters);
+        String query = createSelectSql(connection, columns, fromClause() + whereClause() + suffix, limit);
+        return executeQuery(connection, query, parameters, resultFactory, resultMapper);
     }
 
     protected DatabaseResult createResult(ResultSet rs) throws SQLException {
+        return createResult(rs, columns);
+    }
+
+    private DatabaseResult createResult(ResultSet rs, List<DatabaseColumnReference> columns) throws SQLException {
+        Map<DatabaseColumnReference, Integer> columnMap = columns.isEmpty() ? getColumnMap(rs) : getSelectedColumnMap(columns);
+        return new DatabaseResult(rs) {
+            @Override
+            protected DatabaseRow createDatabaseRow(ResultSet resultSet) {
+                return new DatabaseRow(resultSet, columnMap);
+            }
+        };
+    }
+
+    private static Map<DatabaseColumnReference, Integer> getSelectedColumnMap(List<DatabaseColumnReference> columns) {
+        Map<DatabaseColumnReference, Integer> columnMap = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            columnMap.putIfAbsent(columns.get(i), i + 1);
+        }
+        return columnMap;
+    }
+
+    private Map<DatabaseColumnReference, Integer> getColumnMap(ResultSet rs) throws SQLException {
         Map<DatabaseColumnReference, Integer> columnMap = new LinkedHashMap<>();
         List<DatabaseTableAlias> aliases = new ArrayList<>();
         aliases.add(table);
@@ -153,17 +304,13 @@ public class DatabaseJoinedQueryBuilder extends DatabaseStatement implements Dat
             }
             columnMap.put(column, i);
         }
-
-        return new DatabaseResult(rs) {
-            @Override
-            protected DatabaseRow createDatabaseRow(ResultSet resultSet) {
-                return new DatabaseRow(resultSet, columnMap);
-            }
-        };
+        return columnMap;
     }
 
-    private String createSelectStatement() {
-        return "select *" + fromClause() + whereClause() + orderByClause();
+    private String selectedColumns() {
+        return columns.isEmpty()
+                ? "*"
+                : columns.stream().map(DatabaseColumnReference::getQualifiedColumnName).collect(Collectors.joining(", "));
     }
 
     private String orderByClause() {
@@ -4,13 +4,56 @@ import java.sql.Connection;
 import java.util.List;
 
 import org.fluentjdbc.DatabaseTable.RowMapper;
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
+
+import javax.annotation.Nullable;
 
 public interface DatabaseListableQueryBuilder {
 
     DatabaseListableQueryBuilder orderBy(String orderByClause);
 
+    /**
+     * Restricts the query to return at most <code>limit</code> rows. The limit is
+     * sent to the database as <code>limit</code>, <code>top</code> or <code>fetch first</code>
+     * depending on the database, so the database can stop reading early.
+     *
+     * @throws IllegalArgumentException if <code>limit</code> is negative
+     */
+    DatabaseListableQueryBuilder limit(int limit);
+
     <T> List<T> list(Connection connection, RowMapper<T> mapper);
 
+    /**
+     * Calls the consumer for each row as it is read from the database, without
+     * collecting the rows in memory
+     */
+    void forEach(Connection connection, DatabaseTable.RowConsumer consumer);
+
+    /**
+     * Returns the first row of the query mapped with the mapper, or null if no rows
+     * match. Only a single row is requested from the database.
+     */
+    @Nullable
+    <T> T first(Connection connection, RowMapper<T> mapper);
+
+    /**
+     * Reads the column from all matching rows directly into a primitive list,
+     * avoiding a boxed {@link Long} per row as with {@link #listLongs}
+     */
+    LongArrayList longColumn(Connection connection, String fieldName);
+
+    IntArrayList intColumn(Connection connection, String fieldName);
+
+    DoubleArrayList doubleColumn(Connection connection, String fieldName);
+
+    /**
+     * Reads all matching rows into a {@link DatabaseColumnarTable}. Use this instead of
+     * {@link #list} to keep large results in memory with much less overhead per row.
+     */
+    DatabaseColumnarTable columnar(Connection connection);
+
     default List<Long> listLongs(Connection connection, final String fieldName) {
         return list(connection, row -> row.getLong(fieldName));
     }
@@ -13,6 +13,14 @@ public interface DatabaseQueriable<T extends DatabaseQueriable<T>> {
 
     T whereOptional(String fieldName, @Nullable Object value);
 
+    /**
+     * Adds <code>fieldName IN (...)</code> with one parameter per value. Long lists are split
+     * into several statements by <code>count</code>, <code>exists</code>, <code>sum</code>,
+     * <code>min</code>, <code>max</code>, and by <code>list</code> and <code>forEach</code> without
+     * <code>orderBy</code> or <code>limit</code>.
+     * Other queries throw {@link IllegalArgumentException} if the list needs more parameters than
+     * {@link org.fluentjdbc.dialect.DatabaseDialect#getMaxParameters()}.
+     */
     T whereIn(String fieldName, Collection<?> parameters);
 
     default T where(String fieldName, @Nullable Object value) {
@@ -1,9 +1,17 @@
 package org.fluentjdbc;
 
 import org.fluentjdbc.DatabaseTable.RowMapper;
+import org.fluentjdbc.dialect.DatabaseDialect;
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
 
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -15,8 +23,20 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public class DatabaseResult implements AutoCloseable {
 
+    @FunctionalInterface
+    interface ResultMapper<T> {
+        T apply(DatabaseResult result) throws SQLException;
+    }
+
+    @FunctionalInterface
+    interface Factory {
+        DatabaseResult create(ResultSet resultSet) throws SQLException;
+    }
+
     private ResultSet resultSet;
     private Map<String, DatabaseRow> tableRows = new HashMap<>();
+    private DatabaseRow row;
+    private int rowCount;
 
     public DatabaseResult(ResultSet resultSet) {
         this.resultSet = resultSet;
@@ -28,12 +48,29 @@ public class DatabaseResult implements AutoCloseable {
     }
 
     public boolean next() throws SQLException {
-        return resultSet.next();
+        if (resultSet.next()) {
+            rowCount++;
+            return true;
+        }
+        return false;
     }
 
-    // TODO: This doesn't work on Android or SQL server
+    /**
+     * Returns the columns of the current row that belong to <code>tableName</code>, based on
+     * {@link ResultSetMetaData#getTableName(int)}. Databases where the driver doesn't report
+     * this, see {@link DatabaseDialect#supportsResultSetTableNames()}, must use
+     * {@link DatabaseJoinedQueryBuilder}, which finds the columns by position instead.
+     */
     public DatabaseRow table(String tableName) throws SQLException {
         if (!tableRows.containsKey(tableName)) {
+            Statement statement = resultSet.getStatement();
+            if (statement != null) {
+                DatabaseDialect dialect = DatabaseStatement.getDialect(statement.getConnection());
+                if (!dialect.supportsResultSetTableNames()) {
+                    throw new UnsupportedOperationException(dialect.getProductName()
+                            + " doesn't report the table of result columns, use DatabaseJoinedQueryBuilder instead");
+                }
+            }
             tableRows.put(tableName, new DatabaseRow(resultSet, tableName));
         }
         return tableRows.get(tableName);
@@ -42,23 +79,132 @@ public class DatabaseResult implements AutoCloseable {
     public <T> List<T> list(RowMapper<T> mapper) throws SQLException {
         List<T> result = new ArrayList<>();
         while (next()) {
-            result.add(mapper.mapRow(createDatabaseRow(resultSet)));
+            result.add(mapper.mapRow(getRow()));
         }
         return result;
     }
 
+    public void forEach(DatabaseTable.RowConsumer consumer) throws SQLException {
+        while (next()) {
+            consumer.apply(getRow());
+        }
+    }
+
     @Nullable
     public <T> T single(RowMapper<T> mapper) throws SQLException {
         if (!next()) {
             return null;
         }
-        T result = mapper.mapRow(createDatabaseRow(resultSet));
+        T result = mapper.mapRow(getRow());
         if (next()) {
             throw new IllegalStateException("More than one row returned");
         }
         return result;
     }
 
+    @Nullable
+    public <T> T first(RowMapper<T> mapper) throws SQLException {
+        if (!next()) {
+            return null;
+        }
+        return mapper.mapRow(getRow());
+    }
+
+    /**
+     * Reads all values of the column into a primitive list, without creating an object
+     * per row. Null values are read as 0, like {@link ResultSet#getLong}.
+     */
+    public LongArrayList longColumn(String fieldName) throws SQLException {
+        int columnIndex = resultSet.findColumn(fieldName);
+        LongArrayList result = new LongArrayList(initialColumnCapacity());
+        while (next()) {
+            result.add(resultSet.getLong(columnIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Reads all values of the column into a primitive list, without creating an object
+     * per row. Null values are read as 0, like {@link ResultSet#getInt}.
+     */
+    public IntArrayList intColumn(String fieldName) throws SQLException {
+        int columnIndex = resultSet.findColumn(fieldName);
+        IntArrayList result = new IntArrayList(initialColumnCapacity());
+        while (next()) {
+            result.add(resultSet.getInt(columnIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Reads all values of the column into a primitive list, without creating an object
+     * per row. Null values are read as 0, like {@link ResultSet#getDouble}.
+     */
+    public DoubleArrayList doubleColumn(String fieldName) throws SQLException {
+        int columnIndex = resultSet.findColumn(fieldName);
+        DoubleArrayList result = new DoubleArrayList(initialColumnCapacity());
+        while (next()) {
+            result.add(resultSet.getDouble(columnIndex));
+        }
+        return result;
+    }
+
+    /**
+     * Reads all rows into a {@link DatabaseColumnarTable}, which stores the values
+     * column by column in primitive arrays
+     */
+    public DatabaseColumnarTable columnar() throws SQLException {
+        DatabaseColumnarTable table = DatabaseColumnarTable.read(resultSet);
+        rowCount += table.getRowCount();
+        return table;
+    }
+
+    private int initialColumnCapacity() throws SQLException {
+        return Math.max(resultSet.getFetchSize(), 16);
+    }
+
+    /**
+     * The number of rows read so far
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    <T> T mapRow(RowMapper<T> mapper) throws SQLException {
+        return mapper.mapRow(getRow());
+    }
+
+    @Nullable
+    Object getObject(int columnIndex) throws SQLException {
+        return resultSet.getObject(columnIndex);
+    }
+
+    @Nullable
+    Instant getInstant(int columnIndex) throws SQLException {
+        Timestamp timestamp = resultSet.getTimestamp(columnIndex);
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+
+    List<String> getColumnNames() throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        List<String> result = new ArrayList<>();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            result.add(metaData.getColumnName(i));
+        }
+        return result;
+    }
+
+    /**
+     * The row is created once per result, as reading the column names from
+     * {@link java.sql.ResultSetMetaData} for each row is costly
+     */
+    private DatabaseRow getRow() throws SQLException {
+        if (row == null) {
+            row = createDatabaseRow(resultSet);
+        }
+        return row;
+    }
+
     protected DatabaseRow createDatabaseRow(ResultSet resultSet) throws SQLException {
         return new DatabaseRow(this.resultSet);
     }
@@ -3,11 +3,13 @@ package org.fluentjdbc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
 import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -16,20 +18,33 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
+import javax.annotation.Nullable;
+
+/**
+ * A view of the current row of a query result. The same object is passed to
+ * {@link DatabaseTable.RowMapper} for every row in a result, so mappers should
+ * read the values they need and not keep a reference to the row.
+ *
+ * <p>The primitive accessors with a default value, such as {@link #getLong(String, long)},
+ * and the accessors taking a JDBC column index (starting at 1) don't allocate objects,
+ * which makes them useful for mappers that process large number of rows.</p>
+ */
 public class DatabaseRow {
 
     private final static Logger logger = LoggerFactory.getLogger(DatabaseRow.class);
 
     private final ResultSet rs;
     private final Map<String, Integer> columnIndexes = new HashMap<>();
+    private final Map<String, Integer> fieldNameIndexes = new HashMap<>();
     private Map<DatabaseColumnReference, Integer> columnMap;
+    private int[] columnTypes;
 
     DatabaseRow(ResultSet rs, String tableName) throws SQLException {
         this.rs = rs;
 
         ResultSetMetaData metaData = rs.getMetaData();
         for (int i=1; i<=metaData.getColumnCount(); i++) {
-            // TODO: This doesn't work on Android or SQL server
+            // Not reported by all drivers, see DatabaseDialect.supportsResultSetTableNames
             if (metaData.getTableName(i).isEmpty()) {
                 throw new IllegalStateException("getTableName not supported");
             }
@@ -72,11 +87,140 @@ public class DatabaseRow {
         return rs.getString(getColumnIndex(fieldName));
     }
 
+    public String getString(int columnIndex) throws SQLException {
+        return rs.getString(columnIndex);
+    }
+
     public Long getLong(String fieldName) throws SQLException {
         long result = rs.getLong(getColumnIndex(fieldName));
         return rs.wasNull() ? null : result;
     }
 
+    /**
+     * Returns the value of the column as a primitive long, or <code>defaultValue</code> if the column is null
+     */
+    public long getLong(String fieldName, long defaultValue) throws SQLException {
+        return getLong(getColumnIndex(fieldName), defaultValue);
+    }
+
+    public long getLong(int columnIndex, long defaultValue) throws SQLException {
+        long result = rs.getLong(columnIndex);
+        return rs.wasNull() ? defaultValue : result;
+    }
+
+    @Nullable
+    public Integer getIntOrNull(String fieldName) throws SQLException {
+        return getIntOrNull(getColumnIndex(fieldName));
+    }
+
+    @Nullable
+    public Integer getIntOrNull(int columnIndex) throws SQLException {
+        int result = rs.getInt(columnIndex);
+        return rs.wasNull() ? null : result;
+    }
+
+    /**
+     * Returns the value of the column as a primitive int, or <code>defaultValue</code> if the column is null
+     */
+    public int getInt(String fieldName, int defaultValue) throws SQLException {
+        return getInt(getColumnIndex(fieldName), defaultValue);
+    }
+
+    public int getInt(int columnIndex, int defaultValue) throws SQLException {
+        int result = rs.getInt(columnIndex);
+        return rs.wasNull() ? defaultValue : result;
+    }
+
+    @Nullable
+    public Double getDoubleOrNull(String fieldName) throws SQLException {
+        return getDoubleOrNull(getColumnIndex(fieldName));
+    }
+
+    @Nullable
+    public Double getDoubleOrNull(int columnIndex) throws SQLException {
+        double result = rs.getDouble(columnIndex);
+        return rs.wasNull() ? null : result;
+    }
+
+    /**
+     * Returns the value of the column as a primitive double, or <code>defaultValue</code> if the column is null
+     */
+    public double getDouble(String fieldName, double defaultValue) throws SQLException {
+        return getDouble(getColumnIndex(fieldName), defaultValue);
+    }
+
+    public double getDouble(int columnIndex, double defaultValue) throws SQLException {
+        double result = rs.getDouble(columnIndex);
+        return rs.wasNull() ? defaultValue : result;
+    }
+
+    @Nullable
+    public BigDecimal getBigDecimal(String fieldName) throws SQLException {
+        return rs.getBigDecimal(getColumnIndex(fieldName));
+    }
+
+    @Nullable
+    public BigDecimal getBigDecimal(int columnIndex) throws SQLException {
+        return rs.getBigDecimal(columnIndex);
+    }
+
+    @Nullable
+    public byte[] getBytes(String fieldName) throws SQLException {
+        return rs.getBytes(getColumnIndex(fieldName));
+    }
+
+    @Nullable
+    public byte[] getBytes(int columnIndex) throws SQLException {
+        return rs.getBytes(columnIndex);
+    }
+
+    public boolean isNull(String fieldName) throws SQLException {
+        return isNull(getColumnIndex(fieldName));
+    }
+
+    /**
+     * Checks the column for null by reading it with the primitive getter for its
+     * JDBC type and calling {@link ResultSet#wasNull()}, so numeric and character
+     * columns are checked without boxing or converting the value.
+     */
+    public boolean isNull(int columnIndex) throws SQLException {
+        switch (getColumnType(columnIndex)) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                rs.getLong(columnIndex);
+                return rs.wasNull();
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                rs.getDouble(columnIndex);
+                return rs.wasNull();
+            case Types.BIT:
+            case Types.BOOLEAN:
+                rs.getBoolean(columnIndex);
+                return rs.wasNull();
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+                return rs.getString(columnIndex) == null;
+            default:
+                return rs.getObject(columnIndex) == null;
+        }
+    }
+
+    private int getColumnType(int columnIndex) throws SQLException {
+        if (columnTypes == null) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            columnTypes = new int[metaData.getColumnCount() + 1];
+            for (int i = 1; i < columnTypes.length; i++) {
+                columnTypes[i] = metaData.getColumnType(i);
+            }
+        }
+        return columnTypes[columnIndex];
+    }
+
     public Object getObject(String fieldName) throws SQLException {
         return rs.getObject(getColumnIndex(fieldName));
     }
@@ -87,18 +231,31 @@ public class DatabaseRow {
     }
 
     public boolean getBoolean(String fieldName) throws SQLException {
-        return  rs.getBoolean(fieldName);
+        return rs.getBoolean(getColumnIndex(fieldName));
+    }
+
+    /**
+     * Returns the JDBC column index of the field, for use with the index based accessors
+     */
+    public int findColumn(String fieldName) {
+        return getColumnIndex(fieldName);
     }
 
     private Integer getColumnIndex(String fieldName) {
-        if (!columnIndexes.containsKey(fieldName.toUpperCase())) {
-            throw new IllegalArgumentException("Column {" + fieldName + "} is not present in " + columnIndexes.keySet());
+        // Cache on the field name as given to avoid converting case on every lookup
+        Integer index = fieldNameIndexes.get(fieldName);
+        if (index == null) {
+            if (!columnIndexes.containsKey(fieldName.toUpperCase())) {
+                throw new IllegalArgumentException("Column {" + fieldName + "} is not present in " + columnIndexes.keySet());
+            }
+            index = columnIndexes.get(fieldName.toUpperCase());
+            fieldNameIndexes.put(fieldName, index);
         }
-        return columnIndexes.get(fieldName.toUpperCase());
+        return index;
     }
 
     public LocalDate getLocalDate(String fieldName) throws SQLException {
-        Date date = rs.getDate(fieldName);
+        Date date = rs.getDate(getColumnIndex(fieldName));
         return date != null ? date.toLocalDate() : null;
     }
 
@@ -108,7 +265,14 @@ public class DatabaseRow {
     }
 
     public String getString(DatabaseColumnReference column) throws SQLException {
-        return rs.getString(columnMap.get(column));
+        return rs.getString(getColumnIndex(column));
+    }
+
+    private Integer getColumnIndex(DatabaseColumnReference column) {
+        if (!columnMap.containsKey(column)) {
+            throw new IllegalArgumentException("Column {" + column.getQualifiedColumnName() + "} is not present in " + columnMap.keySet());
+        }
+        return columnMap.get(column);
     }
 
 }
@@ -1,9 +1,41 @@
 package org.fluentjdbc;
 
+import javax.annotation.Nullable;
 import java.sql.Connection;
 
 public interface DatabaseSimpleQueryBuilder extends DatabaseQueryBuilder<DatabaseSimpleQueryBuilder> {
 
+    /**
+     * Only retrieve the specified columns instead of <code>select *</code>.
+     * {@link DatabaseRow} will only be able to look up the selected columns.
+     */
+    DatabaseSimpleQueryBuilder select(String... columnNames);
+
+    /**
+     * Returns the number of matching rows with <code>select count(*)</code>
+     */
+    long count(Connection connection);
+
+    /**
+     * Returns true if any row matches the query. Only a single row is requested from the database.
+     */
+    boolean exists(Connection connection);
+
+    @Nullable
+    Number min(Connection connection, String fieldName);
+
+    @Nullable
+    Number max(Connection connection, String fieldName);
+
+    @Nullable
+    Number sum(Connection connection, String fieldName);
+
+    /**
+     * Groups the matching rows by the specified columns in order to return aggregates per group,
+     * e.g. <code>table.where(...).groupBy("category").count(connection, row -> row.getString("category"))</code>
+     */
+    DatabaseGroupedQueryBuilder groupBy(String... fieldNames);
+
     DatabaseUpdateBuilder update();
 
     void delete(Connection connection);
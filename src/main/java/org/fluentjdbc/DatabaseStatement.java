@@ -1,22 +1,21 @@
 package org.fluentjdbc;
 
+import org.fluentjdbc.dialect.DatabaseDialect;
+import org.fluentjdbc.dialect.DatabaseDialects;
 import org.fluentjdbc.util.ExceptionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.sql.Connection;
-import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZonedDateTime;
-import java.time.temporal.Temporal;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
 
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -31,48 +30,447 @@ class DatabaseStatement {
 
     protected int bindParameters(PreparedStatement stmt, List<Object> parameters, int start) throws SQLException {
         int index = start;
+        if (parameters.isEmpty()) {
+            return index;
+        }
+        DatabaseDialect dialect = getDialect(stmt.getConnection());
         for (Object parameter : parameters) {
-            bindParameter(stmt, index++, parameter);
+            bindParameter(stmt, index++, parameter, dialect);
         }
         return index;
     }
 
     protected void bindParameter(PreparedStatement stmt, int index, @Nullable Object parameter) throws SQLException {
-        if (parameter instanceof Instant) {
-            stmt.setTimestamp(index, Timestamp.from((Instant)parameter));
-        } else if (parameter instanceof ZonedDateTime) {
-            stmt.setTimestamp(index, Timestamp.from(Instant.from((ZonedDateTime)parameter)));
-        } else if (parameter instanceof LocalDate) {
-            stmt.setDate(index, Date.valueOf((LocalDate)parameter));
-        } else if (parameter instanceof UUID && isSqlServer(stmt.getConnection())) {
-            stmt.setObject(index, parameter.toString());
-        } else if (parameter instanceof Temporal) {
-            stmt.setObject(index, parameter.toString());
-        } else if (parameter instanceof CharSequence) {
-            stmt.setString(index, parameter.toString());
-        } else if (parameter instanceof Enum<?>) {
-            stmt.setString(index, parameter.toString());
-        } else {
-            stmt.setObject(index, parameter);
+        bindParameter(stmt, index, parameter, getDialect(stmt.getConnection()));
+    }
+
+    protected void bindParameter(PreparedStatement stmt, int index, @Nullable Object parameter, DatabaseDialect dialect) throws SQLException {
+        dialect.bindParameter(stmt, index, parameter);
+    }
+
+    /**
+     * The dialect of the database behind the connection, which is only looked up once per
+     * connection supplier for connections from {@link DbContext} and once per connection otherwise
+     */
+    protected static DatabaseDialect getDialect(Connection connection) {
+        DatabaseDialect dialect = DbContext.currentDialect(connection);
+        return dialect != null ? dialect : DatabaseDialects.detect(connection);
+    }
+
+    /**
+     * Creates a <code>select</code> statement which returns at most <code>limit</code> rows,
+     * using the syntax of the {@link DatabaseDialect} of the connection
+     */
+    protected String createSelectSql(Connection connection, String columns, String fromAndWhereClause, @Nullable Integer limit) {
+        if (limit == null) {
+            return "select " + columns + fromAndWhereClause;
         }
+        return getDialect(connection).createSelectSql(columns, fromAndWhereClause, limit);
     }
 
-    private boolean isSqlServer(Connection connection) {
-        return connection.getClass().getName().startsWith("net.sourceforge.jtds.jdbc");
+    protected static int minLimit(@Nullable Integer limit, int maxRows) {
+        return limit != null && limit < maxRows ? limit : maxRows;
     }
 
     protected void executeUpdate(String query, List<Object> parameters, Connection connection) {
-        long startTime = System.currentTimeMillis();
-        logger.trace(query);
-        try (PreparedStatement stmt = connection.prepareStatement(query)) {
-            bindParameters(stmt, parameters);
-            stmt.executeUpdate();
+        executeStatement(connection, query, parameters, Connection::prepareStatement, (stmt, timing) -> {
+            timing.executing();
+            timing.setRowCount(stmt.executeUpdate());
+            timing.fetching();
+            return null;
+        });
+    }
+
+    /**
+     * Executes a query and maps the result, reporting the time spent preparing, executing
+     * and fetching the result to the {@link QueryListeners}
+     */
+    protected <T> T executeQuery(Connection connection, String query, List<Object> parameters,
+                                 DatabaseResult.Factory resultFactory, DatabaseResult.ResultMapper<T> resultMapper) {
+        return executeStatement(connection, query, parameters, Connection::prepareStatement, (stmt, timing) -> {
+            timing.executing();
+            try (DatabaseResult result = resultFactory.create(stmt.executeQuery())) {
+                timing.fetching();
+                DbContext.resultOpened();
+                try {
+                    T value = resultMapper.apply(result);
+                    timing.setRowCount(result.getRowCount());
+                    return value;
+                } finally {
+                    DbContext.resultClosed();
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    protected interface StatementPreparer {
+        PreparedStatement prepare(Connection connection, String query) throws SQLException;
+    }
+
+    @FunctionalInterface
+    protected interface StatementExecutor<T> {
+        T execute(PreparedStatement stmt, QueryTiming timing) throws SQLException;
+    }
+
+    /**
+     * When a statement run by {@link #executeStatement} started executing and fetching, and
+     * how many rows it returned or affected, as reported to the {@link QueryListeners}
+     */
+    protected static class QueryTiming {
+        private final long startTime = System.nanoTime();
+        private long executeTime;
+        private long fetchTime;
+        private int rowCount = -1;
+
+        void executing() {
+            executeTime = System.nanoTime();
+        }
+
+        void fetching() {
+            fetchTime = System.nanoTime();
+        }
+
+        void setRowCount(int rowCount) {
+            this.rowCount = rowCount;
+        }
+    }
+
+    /**
+     * Expands <code>whereIn</code> parameters, prepares the statement, binds the parameters and
+     * lets <code>executor</code> execute it, reporting the statement to the {@link QueryListeners}
+     * and {@link DbContext} whether it succeeds or fails
+     */
+    protected <T> T executeStatement(Connection connection, String query, List<Object> parameters,
+                                     StatementPreparer preparer, StatementExecutor<T> executor) {
+        if (containsInList(parameters)) {
+            List<Object> expandedParameters = new ArrayList<>();
+            query = expandInLists(connection, query, parameters, expandedParameters);
+            parameters = expandedParameters;
+        }
+        List<Object> boundParameters = parameters;
+        return executeStatement(connection, query, parameters, parameters.size(), 1, preparer, (stmt, timing) -> {
+            bindParameters(stmt, boundParameters);
+            return executor.execute(stmt, timing);
+        });
+    }
+
+    /**
+     * Prepares a batch statement and lets <code>executor</code> bind and execute it, reporting
+     * the statement to the {@link QueryListeners} and {@link DbContext} whether it succeeds or fails
+     */
+    protected static <T> T executeStatement(Connection connection, String query, int parameterCount, int batchSize,
+                                            StatementPreparer preparer, StatementExecutor<T> executor) {
+        return executeStatement(connection, query, null, parameterCount, batchSize, preparer, executor);
+    }
+
+    private static <T> T executeStatement(Connection connection, String query, @Nullable List<Object> parameters,
+                                          int parameterCount, int batchSize, StatementPreparer preparer, StatementExecutor<T> executor) {
+        QueryTiming timing = new QueryTiming();
+        Throwable error = null;
+        startQuery(query);
+        try (PreparedStatement stmt = preparer.prepare(connection, query)) {
+            return executor.execute(stmt, timing);
         } catch (SQLException e) {
+            error = e;
             throw ExceptionUtil.softenCheckedException(e);
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
         } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
+            reportQuery(query, parameters, parameterCount, batchSize, timing.rowCount,
+                    timing.startTime, timing.executeTime, timing.fetchTime, error);
+        }
+    }
+
+    /**
+     * The values of a <code>whereIn</code> condition, which is written as <code>in (?)</code>
+     * and expanded to one parameter per value when the statement is executed. The number of
+     * parameters is padded to the next power of two by repeating the last value, so that lists
+     * of different sizes share a few statements in statement caches and database plan caches.
+     *
+     * <p>If the {@link DatabaseDialect} supports it and all values have the same type, the values
+     * are instead bound as a single array with {@link DatabaseDialect#getArrayInExpression()},
+     * so that all lists share one statement.</p>
+     */
+    static class InListParameter {
+        private final List<Object> values;
+
+        InListParameter(Collection<?> values) {
+            this.values = new ArrayList<>(values);
+        }
+
+        List<Object> getValues() {
+            return values;
+        }
+
+        /**
+         * The type name for {@link Connection#createArrayOf} if the values can be bound as an array
+         */
+        @Nullable
+        String getArrayTypeName(DatabaseDialect dialect) {
+            if (values.isEmpty() || values.get(0) == null || dialect.getArrayInExpression() == null) {
+                return null;
+            }
+            Class<?> elementType = values.get(0).getClass();
+            for (Object value : values) {
+                if (value == null || value.getClass() != elementType) {
+                    return null;
+                }
+            }
+            return dialect.getArrayTypeName(elementType);
+        }
+
+        @Override
+        public String toString() {
+            return values.toString();
+        }
+    }
+
+    /**
+     * Lists longer than this are split into several statements by {@link #splitInLists}
+     */
+    static final int MAX_IN_LIST_SIZE = 1024;
+
+    private static boolean containsInList(List<Object> parameters) {
+        for (Object parameter : parameters) {
+            if (parameter instanceof InListParameter) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int countExpandedParameters(List<Object> parameters) {
+        int count = 0;
+        for (Object parameter : parameters) {
+            count += parameter instanceof InListParameter ? ((InListParameter) parameter).values.size() : 1;
+        }
+        return count;
+    }
+
+    static int nextPowerOfTwo(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Replaces the placeholder of each {@link InListParameter} with a placeholder per value,
+     * padded unless that would exceed {@link DatabaseDialect#getMaxParameters()}
+     */
+    private static String expandInLists(Connection connection, String query, List<Object> parameters, List<Object> expandedParameters) {
+        DatabaseDialect dialect = getDialect(connection);
+        int spareParameters = dialect.getMaxParameters() - countExpandedParameters(parameters);
+        StringBuilder result = new StringBuilder(query.length());
+        int parameterIndex = 0;
+        boolean inQuotes = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c == '\'') {
+                inQuotes = !inQuotes;
+            } else if (c == '?' && !inQuotes && parameterIndex < parameters.size()) {
+                Object parameter = parameters.get(parameterIndex++);
+                if (parameter instanceof InListParameter) {
+                    List<Object> values = ((InListParameter) parameter).values;
+                    String arrayTypeName = ((InListParameter) parameter).getArrayTypeName(dialect);
+                    if (arrayTypeName != null && endsWithIgnoreCase(result, "in (") && query.startsWith(")", i + 1)) {
+                        result.setLength(result.length() - "in (".length());
+                        result.append(dialect.getArrayInExpression());
+                        try {
+                            expandedParameters.add(connection.createArrayOf(arrayTypeName, values.toArray()));
+                        } catch (SQLException e) {
+                            throw ExceptionUtil.softenCheckedException(e);
+                        }
+                        i++;
+                        continue;
+                    }
+                    int size = values.size();
+                    int paddedSize = nextPowerOfTwo(size);
+                    if (paddedSize - size <= spareParameters) {
+                        spareParameters -= paddedSize - size;
+                    } else {
+                        paddedSize = size;
+                    }
+                    for (int j = 0; j < paddedSize; j++) {
+                        result.append(j == 0 ? "?" : ",?");
+                        expandedParameters.add(values.get(Math.min(j, size - 1)));
+                    }
+                    continue;
+                }
+                expandedParameters.add(parameter);
+            }
+            result.append(c);
+        }
+        return result.toString();
+    }
+
+    private static boolean endsWithIgnoreCase(StringBuilder s, String suffix) {
+        return s.length() >= suffix.length()
+                && s.substring(s.length() - suffix.length()).equalsIgnoreCase(suffix);
+    }
+
+    /**
+     * Returns the parameters for each statement needed to execute a query, where the largest
+     * {@link InListParameter} is split into chunks if it has more than {@link #MAX_IN_LIST_SIZE}
+     * values or more values than the database allows parameters. Duplicate values are removed
+     * before splitting, so each row is only returned by one of the statements. As the results
+     * of the statements are concatenated, this must not be used with <code>order by</code> or limits.
+     */
+    protected static List<List<Object>> splitInLists(Connection connection, List<Object> parameters) {
+        int largestIndex = -1;
+        for (int i = 0; i < parameters.size(); i++) {
+            Object parameter = parameters.get(i);
+            if (parameter instanceof InListParameter && ((InListParameter) parameter).values.size() > 1
+                    && (largestIndex < 0 || ((InListParameter) parameter).values.size() > ((InListParameter) parameters.get(largestIndex)).values.size())) {
+                largestIndex = i;
+            }
+        }
+        if (largestIndex < 0) {
+            return Collections.singletonList(parameters);
+        }
+        InListParameter largest = (InListParameter) parameters.get(largestIndex);
+        DatabaseDialect dialect = getDialect(connection);
+        if (largest.getArrayTypeName(dialect) != null) {
+            return Collections.singletonList(parameters);
+        }
+        List<Object> values = largest.values;
+        int otherParameters = countExpandedParameters(parameters) - values.size();
+        int maxChunkSize = Math.min(MAX_IN_LIST_SIZE, dialect.getMaxParameters() - otherParameters);
+        if (values.size() <= maxChunkSize || maxChunkSize < 1) {
+            return Collections.singletonList(parameters);
+        }
+        int chunkSize = Integer.highestOneBit(maxChunkSize);
+        List<Object> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+        List<List<Object>> result = new ArrayList<>();
+        for (int start = 0; start < distinctValues.size(); start += chunkSize) {
+            List<Object> chunkParameters = new ArrayList<>(parameters);
+            chunkParameters.set(largestIndex, new InListParameter(distinctValues.subList(start, Math.min(start + chunkSize, distinctValues.size()))));
+            result.add(chunkParameters);
+        }
+        return result;
+    }
+
+    /**
+     * Throws if a single statement with these parameters would need more parameters than
+     * {@link DatabaseDialect#getMaxParameters()} after expanding each {@link InListParameter}.
+     * Queries with <code>order by</code>, limits or aggregates other than <code>count</code>,
+     * <code>sum</code>, <code>min</code>, <code>max</code> and <code>exists</code> can't be split
+     * by {@link #splitInLists}.
+     */
+    protected static void checkParameterCount(Connection connection, List<Object> parameters) {
+        if (!containsInList(parameters)) {
+            return;
+        }
+        DatabaseDialect dialect = getDialect(connection);
+        int count = 0;
+        for (Object parameter : parameters) {
+            if (parameter instanceof InListParameter && ((InListParameter) parameter).getArrayTypeName(dialect) == null) {
+                count += ((InListParameter) parameter).values.size();
+            } else {
+                count++;
+            }
+        }
+        if (count > dialect.getMaxParameters()) {
+            throw new IllegalArgumentException("Query needs " + count + " parameters for whereIn, but "
+                    + dialect.getProductName() + " allows " + dialect.getMaxParameters() + " per statement."
+                    + " Long whereIn lists are only split into several statements by count, exists, sum, min, max,"
+                    + " and by list and forEach without orderBy or limit");
+        }
+    }
+
+    /**
+     * Adds the results of <code>sum</code> from several statements, where null means no rows
+     */
+    @Nullable
+    protected static Number addSums(@Nullable Number a, @Nullable Number b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (a instanceof BigDecimal || b instanceof BigDecimal) {
+            return new BigDecimal(a.toString()).add(new BigDecimal(b.toString()));
+        } else if (a instanceof BigInteger || b instanceof BigInteger) {
+            return new BigInteger(a.toString()).add(new BigInteger(b.toString()));
+        } else if (a instanceof Double || b instanceof Double || a instanceof Float || b instanceof Float) {
+            return a.doubleValue() + b.doubleValue();
+        }
+        return Math.addExact(a.longValue(), b.longValue());
+    }
+
+    /**
+     * Combines the results of <code>min</code> from several statements, where null means no rows
+     */
+    @Nullable
+    protected static Number minOf(@Nullable Number a, @Nullable Number b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        }
+        return compareNumbers(a, b) <= 0 ? a : b;
+    }
+
+    /**
+     * Combines the results of <code>max</code> from several statements, where null means no rows
+     */
+    @Nullable
+    protected static Number maxOf(@Nullable Number a, @Nullable Number b) {
+        if (a == null) {
+            return b;
+        } else if (b == null) {
+            return a;
+        }
+        return compareNumbers(a, b) >= 0 ? a : b;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compareNumbers(Number a, Number b) {
+        if (a.getClass() == b.getClass() && a instanceof Comparable) {
+            return ((Comparable) a).compareTo(b);
+        } else if (a instanceof Double || b instanceof Double || a instanceof Float || b instanceof Float) {
+            return Double.compare(a.doubleValue(), b.doubleValue());
+        }
+        return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString()));
+    }
+
+    /**
+     * Returns the total number of rows affected by a batch, or -1 if the driver doesn't report it
+     */
+    protected static int updateCount(int[] batchResult) {
+        int result = 0;
+        for (int count : batchResult) {
+            if (count < 0) {
+                return -1;
+            }
+            result += count;
+        }
+        return result;
+    }
+
+    /**
+     * Logs the query and notifies the {@link QueryListeners} that it is starting. Must be
+     * followed by {@link #reportQuery} for the same query on the same thread. Throws
+     * {@link IllegalStateException} without notifying the listeners if the current
+     * {@link DbContextConnection} has executed the query too many times.
+     */
+    private static void startQuery(String query) {
+        logger.trace(query);
+        DbContext.statementStarting(query);
+        QueryListeners.queryStarted(query);
+    }
+
+    /**
+     * Logs the statement and notifies the {@link QueryListeners}. The times are from {@link System#nanoTime()},
+     * where <code>executeTime</code> and <code>fetchTime</code> are 0 if the statement failed before that stage.
+     */
+    private static void reportQuery(String query, @Nullable List<Object> parameters, int parameterCount, int batchSize, int rowCount,
+                                    long startTime, long executeTime, long fetchTime, @Nullable Throwable error) {
+        long endTime = System.nanoTime();
+        if (logger.isDebugEnabled()) {
+            logger.debug("time={}s query=\"{}\"", (endTime - startTime) / 1_000_000_000.0, query);
         }
+        QueryListeners.queryExecuted(query, parameters, parameterCount, batchSize, rowCount, startTime,
+                executeTime != 0 ? executeTime : endTime, fetchTime != 0 ? fetchTime : endTime, endTime, error);
+        DbContext.statementExecuted(startTime, endTime);
     }
 
     String createInsertSql(String tableName, Collection<String> fieldNames) {
@@ -18,11 +18,26 @@ public interface DatabaseTable extends DatabaseQueriable<DatabaseSimpleQueryBuil
 
     DatabaseTableAlias alias(String alias);
 
+    /**
+     * Starts a query on all rows in the table, e.g. for <code>table.query().count(connection)</code>
+     */
+    DatabaseSimpleQueryBuilder query();
+
+    /**
+     * Only retrieve the specified columns instead of <code>select *</code>
+     */
+    DatabaseSimpleQueryBuilder select(String... columnNames);
+
     @FunctionalInterface
     interface RowMapper<T> {
         T mapRow(DatabaseRow row) throws SQLException;
     }
 
+    @FunctionalInterface
+    interface RowConsumer {
+        void apply(DatabaseRow row) throws SQLException;
+    }
+
     String getTableName();
 
     DatabaseSaveBuilder<Long> newSaveBuilder(String idColumn, @Nullable Long idValue);
@@ -0,0 +1,615 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.util.ExceptionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Keeps a read-mostly table with a numeric primary key in memory outside the Java heap.
+ * Each row is stored as a fixed size record in a direct {@link ByteBuffer}, and rows are
+ * found through an open addressing hash index on the primary key, which is also stored
+ * off-heap. This keeps large reference tables from adding to garbage collection work.
+ *
+ * <p>Declare the cached columns, then call {@link #refresh(Connection)} to load the table.
+ * Readers call {@link #snapshot()} and read values by row number and column number. A refresh
+ * loads a complete new snapshot and then replaces the current one atomically, so readers
+ * keep a consistent view for as long as they hold on to a snapshot.</p>
+ *
+ * <pre>
+ * DatabaseTableCache cache = new DatabaseTableCache(table, "id")
+ *     .longColumn("code")
+ *     .stringColumn("name", 50);
+ * cache.refresh(connection);
+ * DatabaseTableCache.Snapshot snapshot = cache.snapshot();
+ * int row = snapshot.find(id);
+ * String name = row &gt;= 0 ? snapshot.getString(row, snapshot.columnIndex("name")) : null;
+ * </pre>
+ *
+ * <p>With a {@link #watermarkColumn(String)}, such as <code>updated_at</code> in a
+ * {@link DatabaseTableWithTimestamps}, the cache can be saved with {@link #writeSnapshot(Path)}
+ * and restored on startup with {@link #load(Path, Connection)}, which memory-maps the file and
+ * only reads the rows that have changed since the snapshot was written. Rows deleted from the
+ * database are not detected by this, so tables with deletes need a periodic {@link #refresh}.</p>
+ */
+@ParametersAreNonnullByDefault
+public class DatabaseTableCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseTableCache.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x464A5443;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    public enum ColumnType {
+        LONG(8), DOUBLE(8), INSTANT(12), STRING(2);
+
+        private final int size;
+
+        ColumnType(int size) {
+            this.size = size;
+        }
+    }
+
+    private final DatabaseTable table;
+    private final String idColumn;
+    private final List<CachedColumn> columns = new ArrayList<>();
+    private final AtomicReference<Snapshot> currentSnapshot = new AtomicReference<>();
+    @Nullable
+    private String watermarkColumn;
+
+    public DatabaseTableCache(DatabaseTable table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+    }
+
+    public DatabaseTableCache longColumn(String columnName) {
+        return addColumn(columnName, ColumnType.LONG, 0);
+    }
+
+    public DatabaseTableCache doubleColumn(String columnName) {
+        return addColumn(columnName, ColumnType.DOUBLE, 0);
+    }
+
+    public DatabaseTableCache instantColumn(String columnName) {
+        return addColumn(columnName, ColumnType.INSTANT, 0);
+    }
+
+    /**
+     * Caches a string column in a fixed number of bytes per row. Loading fails
+     * if a value is longer than <code>maxBytes</code> when encoded as UTF-8.
+     *
+     * @throws IllegalArgumentException if <code>maxBytes</code> doesn't fit the
+     *      two byte length prefix, that is, is larger than {@link Short#MAX_VALUE}
+     */
+    public DatabaseTableCache stringColumn(String columnName, int maxBytes) {
+        if (maxBytes < 0 || maxBytes > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("maxBytes for " + columnName + " must be between 0 and " + Short.MAX_VALUE + ", was " + maxBytes);
+        }
+        return addColumn(columnName, ColumnType.STRING, maxBytes);
+    }
+
+    /**
+     * The column which is used to find rows that changed after a snapshot was written,
+     * typically <code>updated_at</code>
+     */
+    public DatabaseTableCache watermarkColumn(String columnName) {
+        this.watermarkColumn = columnName;
+        return this;
+    }
+
+    private DatabaseTableCache addColumn(String columnName, ColumnType type, int maxBytes) {
+        if (currentSnapshot.get() != null) {
+            throw new IllegalStateException("Can't add columns after the cache is loaded");
+        }
+        columns.add(new CachedColumn(columnName, type, maxBytes));
+        return this;
+    }
+
+    public DatabaseTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the current snapshot of the table
+     *
+     * @throws IllegalStateException if {@link #refresh} has not been called
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = currentSnapshot.get();
+        if (snapshot == null) {
+            throw new IllegalStateException("Call refresh before reading from " + this);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Loads all rows of the table into a new snapshot and makes it the current snapshot
+     */
+    public Snapshot refresh(Connection connection) {
+        Schema schema = getSchema();
+        long count = table.query().count(connection);
+        SnapshotBuilder builder = new SnapshotBuilder(schema, (int) Math.max(16, count + count / 8));
+        table.select(schema.getColumnNames()).unordered().forEach(connection, builder::add);
+        Snapshot snapshot = builder.build();
+        currentSnapshot.set(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Writes the current snapshot to a file, replacing the file atomically if it exists.
+     * The file contains the layout of the cache, the watermark and the records as they
+     * are laid out in memory.
+     */
+    public void writeSnapshot(Path file) {
+        Snapshot snapshot = snapshot();
+        byte[] schemaDescription = snapshot.getSchema().describe().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(4 + 4 + 4 + schemaDescription.length + 1 + 8 + 4 + 4);
+        header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION);
+        header.putInt(schemaDescription.length).put(schemaDescription);
+        Instant watermark = snapshot.getWatermark();
+        header.put((byte) (watermark != null ? 1 : 0));
+        header.putLong(watermark != null ? watermark.getEpochSecond() : 0);
+        header.putInt(watermark != null ? watermark.getNano() : 0);
+        header.putInt(snapshot.size());
+        header.flip();
+
+        ByteBuffer records = snapshot.getData().duplicate();
+        records.position(0).limit(snapshot.size() * snapshot.getSchema().recordSize);
+        try {
+            Path tmpFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+                channel.force(true);
+            }
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        }
+    }
+
+    /**
+     * Restores the cache from a file written by {@link #writeSnapshot(Path)} and reads
+     * the rows where the {@link #watermarkColumn(String)} is at or after the watermark in
+     * the snapshot. If there are no changes, the snapshot is read directly from the
+     * memory-mapped file. If the file is missing or was written with a different
+     * layout, the whole table is read with {@link #refresh(Connection)}.
+     */
+    public Snapshot load(Path file, Connection connection) {
+        if (watermarkColumn == null) {
+            throw new IllegalStateException("Call watermarkColumn before loading " + this + " from " + file);
+        }
+        Snapshot stored = readSnapshot(file);
+        if (stored == null || stored.getWatermark() == null) {
+            return refresh(connection);
+        }
+
+        Schema schema = stored.getSchema();
+        SnapshotBuilder[] builder = new SnapshotBuilder[1];
+        // Rows updated in the same instant as the watermark may not be in the snapshot
+        table.select(schema.getColumnNames())
+                .whereExpression(watermarkColumn + " >= ?", stored.getWatermark())
+                .unordered()
+                .forEach(connection, row -> {
+                    if (builder[0] == null) {
+                        builder[0] = new SnapshotBuilder(stored);
+                    }
+                    builder[0].upsert(row, stored);
+                });
+        Snapshot snapshot = builder[0] != null ? builder[0].build() : stored;
+        logger.debug("Loaded {} rows from {} and {} changed rows from {}",
+                stored.size(), file, builder[0] != null ? builder[0].getChangedRows() : 0, table.getTableName());
+        currentSnapshot.set(snapshot);
+        return snapshot;
+    }
+
+    @Nullable
+    private Snapshot readSnapshot(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        Schema schema = getSchema();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != SNAPSHOT_MAGIC || buffer.getInt() != SNAPSHOT_VERSION) {
+                logger.warn("Ignoring {}: Not a table cache snapshot", file);
+                return null;
+            }
+            byte[] schemaDescription = new byte[buffer.getInt()];
+            buffer.get(schemaDescription);
+            if (!schema.describe().equals(new String(schemaDescription, StandardCharsets.UTF_8))) {
+                logger.info("Ignoring {}: Written with different columns", file);
+                return null;
+            }
+            boolean hasWatermark = buffer.get() != 0;
+            Instant watermark = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            int rowCount = buffer.getInt();
+            ByteBuffer records = buffer.slice();
+            if (records.capacity() < rowCount * schema.recordSize) {
+                logger.warn("Ignoring {}: Truncated file", file);
+                return null;
+            }
+            return new Snapshot(schema, records, rowCount, hasWatermark ? watermark : null);
+        } catch (IOException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        }
+    }
+
+    private Schema getSchema() {
+        return new Schema(idColumn, columns, watermarkColumn);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + table.getTableName() + "]";
+    }
+
+    static class CachedColumn {
+        final String name;
+        final ColumnType type;
+        final int maxBytes;
+
+        CachedColumn(String name, ColumnType type, int maxBytes) {
+            this.name = name;
+            this.type = type;
+            this.maxBytes = maxBytes;
+        }
+
+        int size() {
+            return type.size + maxBytes;
+        }
+    }
+
+    /**
+     * The layout of each record: The primary key, a null bitmap with one bit per
+     * column and the values of each column at a fixed offset
+     */
+    static class Schema {
+        final String idColumn;
+        final List<CachedColumn> columns;
+        @Nullable
+        final String watermarkColumn;
+        final int[] offsets;
+        final int nullBitmapSize;
+        final int recordSize;
+        private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+        Schema(String idColumn, List<CachedColumn> columns, @Nullable String watermarkColumn) {
+            this.idColumn = idColumn;
+            this.columns = new ArrayList<>(columns);
+            this.watermarkColumn = watermarkColumn;
+            this.offsets = new int[columns.size()];
+            this.nullBitmapSize = (columns.size() + 7) / 8;
+            int offset = 8 + nullBitmapSize;
+            for (int i = 0; i < columns.size(); i++) {
+                offsets[i] = offset;
+                offset += columns.get(i).size();
+                columnIndexes.put(columns.get(i).name.toUpperCase(), i);
+            }
+            this.recordSize = offset;
+        }
+
+        String[] getColumnNames() {
+            List<String> result = new ArrayList<>();
+            result.add(idColumn);
+            columns.forEach(c -> result.add(c.name));
+            if (watermarkColumn != null && !columnIndexes.containsKey(watermarkColumn.toUpperCase())) {
+                result.add(watermarkColumn);
+            }
+            return result.toArray(new String[0]);
+        }
+
+        String describe() {
+            StringBuilder result = new StringBuilder(idColumn);
+            for (CachedColumn column : columns) {
+                result.append(",").append(column.name).append(" ").append(column.type).append("(").append(column.maxBytes).append(")");
+            }
+            return result.append(";").append(watermarkColumn).toString();
+        }
+
+        int columnIndex(String columnName) {
+            Integer index = columnIndexes.get(columnName.toUpperCase());
+            if (index == null) {
+                throw new IllegalArgumentException("Column {" + columnName + "} is not present in " + columnIndexes.keySet());
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Writes rows into a growing direct buffer and builds the primary key index
+     */
+    static class SnapshotBuilder {
+        private final Schema schema;
+        private ByteBuffer data;
+        private int rowCount;
+        private int changedRows;
+        @Nullable
+        private Instant watermark;
+
+        SnapshotBuilder(Schema schema, int initialCapacity) {
+            this.schema = schema;
+            this.data = ByteBuffer.allocateDirect(schema.recordSize * initialCapacity);
+        }
+
+        /**
+         * Starts with a copy of the records in the previous snapshot
+         */
+        SnapshotBuilder(Snapshot previous) {
+            this(previous.getSchema(), previous.size() + Math.max(16, previous.size() / 8));
+            ByteBuffer source = previous.getData().duplicate();
+            source.position(0).limit(previous.size() * schema.recordSize);
+            data.put(source);
+            this.rowCount = previous.size();
+            this.watermark = previous.getWatermark();
+        }
+
+        void add(DatabaseRow row) throws SQLException {
+            ensureCapacity();
+            write(rowCount++, getId(row), row);
+        }
+
+        /**
+         * Replaces the record with the same primary key in the previous snapshot, or adds a new record
+         */
+        void upsert(DatabaseRow row, Snapshot previous) throws SQLException {
+            long id = getId(row);
+            int existing = previous.find(id);
+            if (existing >= 0) {
+                write(existing, id, row);
+            } else {
+                ensureCapacity();
+                write(rowCount++, id, row);
+            }
+            changedRows++;
+        }
+
+        int getChangedRows() {
+            return changedRows;
+        }
+
+        private long getId(DatabaseRow row) throws SQLException {
+            Long id = row.getLong(schema.idColumn);
+            if (id == null) {
+                throw new IllegalArgumentException("Null primary key " + schema.idColumn);
+            }
+            return id;
+        }
+
+        void write(int recordNumber, long id, DatabaseRow row) throws SQLException {
+            if (schema.watermarkColumn != null) {
+                Instant updated = row.getInstant(schema.watermarkColumn);
+                if (updated != null && (watermark == null || updated.isAfter(watermark))) {
+                    watermark = updated;
+                }
+            }
+            int record = recordNumber * schema.recordSize;
+            for (int i = 0; i < schema.nullBitmapSize; i++) {
+                data.put(record + 8 + i, (byte) 0);
+            }
+            data.putLong(record, id);
+            for (int i = 0; i < schema.columns.size(); i++) {
+                CachedColumn column = schema.columns.get(i);
+                int offset = record + schema.offsets[i];
+                if (row.isNull(column.name)) {
+                    int nullByte = record + 8 + i / 8;
+                    data.put(nullByte, (byte) (data.get(nullByte) | (1 << (i % 8))));
+                    continue;
+                }
+                switch (column.type) {
+                    case LONG:
+                        data.putLong(offset, row.getLong(column.name, 0));
+                        break;
+                    case DOUBLE:
+                        data.putDouble(offset, row.getDouble(column.name, 0));
+                        break;
+                    case INSTANT:
+                        Instant instant = row.getInstant(column.name);
+                        data.putLong(offset, instant.getEpochSecond());
+                        data.putInt(offset + 8, instant.getNano());
+                        break;
+                    case STRING:
+                        byte[] bytes = row.getString(column.name).getBytes(StandardCharsets.UTF_8);
+                        if (bytes.length > column.maxBytes) {
+                            throw new IllegalArgumentException("Value of " + column.name + " longer than " + column.maxBytes + " bytes for " + schema.idColumn + "=" + id);
+                        }
+                        data.putShort(offset, (short) bytes.length);
+                        for (int j = 0; j < bytes.length; j++) {
+                            data.put(offset + 2 + j, bytes[j]);
+                        }
+                        break;
+                }
+            }
+        }
+
+        private void ensureCapacity() {
+            if ((rowCount + 1) * schema.recordSize > data.capacity()) {
+                ByteBuffer grown = ByteBuffer.allocateDirect(data.capacity() * 2);
+                ByteBuffer source = data.duplicate();
+                source.position(0).limit(rowCount * schema.recordSize);
+                grown.put(source);
+                data = grown;
+            }
+        }
+
+        Snapshot build() {
+            return new Snapshot(schema, data, rowCount, watermark);
+        }
+    }
+
+    /**
+     * An immutable copy of the cached table. Rows are numbered from 0 to {@link #size()},
+     * columns by the order they were declared in the cache. The accessors read directly
+     * from the off-heap buffer.
+     */
+    public static class Snapshot {
+        private static final int EMPTY = -1;
+
+        private final Schema schema;
+        private final ByteBuffer data;
+        private final ByteBuffer index;
+        private final int indexMask;
+        private final int rowCount;
+        @Nullable
+        private final Instant watermark;
+
+        Snapshot(Schema schema, ByteBuffer data, int rowCount, @Nullable Instant watermark) {
+            this.schema = schema;
+            this.data = data;
+            this.rowCount = rowCount;
+            this.watermark = watermark;
+
+            int indexCapacity = Integer.highestOneBit(Math.max(16, rowCount * 2) - 1) << 1;
+            this.indexMask = indexCapacity - 1;
+            this.index = ByteBuffer.allocateDirect(indexCapacity * 4);
+            for (int slot = 0; slot < indexCapacity; slot++) {
+                index.putInt(slot * 4, EMPTY);
+            }
+            for (int row = 0; row < rowCount; row++) {
+                long key = getKey(row);
+                int slot = hash(key) & indexMask;
+                while (index.getInt(slot * 4) != EMPTY) {
+                    if (getKey(index.getInt(slot * 4)) == key) {
+                        throw new IllegalStateException("Duplicate primary key " + schema.idColumn + "=" + key);
+                    }
+                    slot = (slot + 1) & indexMask;
+                }
+                index.putInt(slot * 4, row);
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        public int size() {
+            return rowCount;
+        }
+
+        /**
+         * Returns the row number of the record with the primary key, or -1 if it's not in the table
+         */
+        public int find(long key) {
+            int slot = hash(key) & indexMask;
+            int row;
+            while ((row = index.getInt(slot * 4)) != EMPTY) {
+                if (getKey(row) == key) {
+                    return row;
+                }
+                slot = (slot + 1) & indexMask;
+            }
+            return -1;
+        }
+
+        public boolean contains(long key) {
+            return find(key) >= 0;
+        }
+
+        public int columnIndex(String columnName) {
+            return schema.columnIndex(columnName);
+        }
+
+        public long getKey(int row) {
+            return data.getLong(recordOffset(row));
+        }
+
+        public boolean isNull(int row, int column) {
+            return (data.get(recordOffset(row) + 8 + column / 8) & (1 << (column % 8))) != 0;
+        }
+
+        public long getLong(int row, int column) {
+            return data.getLong(fieldOffset(row, column, ColumnType.LONG));
+        }
+
+        public double getDouble(int row, int column) {
+            return data.getDouble(fieldOffset(row, column, ColumnType.DOUBLE));
+        }
+
+        @Nullable
+        public Instant getInstant(int row, int column) {
+            if (isNull(row, column)) {
+                return null;
+            }
+            int offset = fieldOffset(row, column, ColumnType.INSTANT);
+            return Instant.ofEpochSecond(data.getLong(offset), data.getInt(offset + 8));
+        }
+
+        @Nullable
+        public String getString(int row, int column) {
+            if (isNull(row, column)) {
+                return null;
+            }
+            int offset = fieldOffset(row, column, ColumnType.STRING);
+            byte[] bytes = new byte[data.getShort(offset)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = data.get(offset + 2 + i);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Returns a read-only view of the UTF-8 bytes of a string value without copying them
+         */
+        @Nullable
+        public ByteBuffer getStringBytes(int row, int column) {
+            if (isNull(row, column)) {
+                return null;
+            }
+            int offset = fieldOffset(row, column, ColumnType.STRING);
+            ByteBuffer result = data.asReadOnlyBuffer();
+            result.position(offset + 2).limit(offset + 2 + data.getShort(offset));
+            return result.slice();
+        }
+
+        @Nullable
+        public Instant getWatermark() {
+            return watermark;
+        }
+
+        Schema getSchema() {
+            return schema;
+        }
+
+        ByteBuffer getData() {
+            return data;
+        }
+
+        private int recordOffset(int row) {
+            if (row < 0 || row >= rowCount) {
+                throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + rowCount);
+            }
+            return row * schema.recordSize;
+        }
+
+        private int fieldOffset(int row, int column, ColumnType type) {
+            if (schema.columns.get(column).type != type) {
+                throw new IllegalArgumentException(schema.columns.get(column).name + " is not " + type);
+            }
+            return recordOffset(row) + schema.offsets[column];
+        }
+    }
+}
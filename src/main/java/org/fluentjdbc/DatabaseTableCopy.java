@@ -0,0 +1,374 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.util.ExceptionUtil;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Copies a table from one database to another, e.g. when migrating between database engines.
+ *
+ * <p>A reader thread streams rows from the source with a cursor in primary key order and hands
+ * them off in chunks through a bounded queue. The {@link #transform column transforms} of each
+ * chunk run in parallel on a thread pool, while the calling thread writes the chunks in order
+ * to the target with batched inserts, committing after each chunk when the target connection
+ * is not in auto-commit mode. When the writer falls behind, the queue fills up and the reader
+ * waits, so memory use is bounded by {@link #queueCapacity(int)} &times; {@link #chunkSize(int)} rows.</p>
+ *
+ * <p>As chunks are committed in key order, an interrupted copy can be resumed: By default,
+ * the copy starts after the highest primary key that is already in the target table. This
+ * requires a numeric primary key.</p>
+ *
+ * <pre>
+ * new DatabaseTableCopy(new DatabaseTableImpl("orders"), "id")
+ *     .transform("status", status -&gt; status.toString().toUpperCase())
+ *     .progressListener(progress -&gt; logger.info("{}", progress))
+ *     .copy(sqlServerConnection, postgresConnection);
+ * </pre>
+ */
+@ParametersAreNonnullByDefault
+public class DatabaseTableCopy extends DatabaseStatement {
+
+    public static class Progress {
+        private final long rowsWritten;
+        private final int queueDepth;
+        private final long elapsedNanos;
+        @Nullable
+        private final Object lastKey;
+
+        Progress(long rowsWritten, int queueDepth, long elapsedNanos, @Nullable Object lastKey) {
+            this.rowsWritten = rowsWritten;
+            this.queueDepth = queueDepth;
+            this.elapsedNanos = elapsedNanos;
+            this.lastKey = lastKey;
+        }
+
+        public long getRowsWritten() {
+            return rowsWritten;
+        }
+
+        /**
+         * The number of chunks that have been read, but not yet written
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rowsWritten * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        /**
+         * The primary key of the last row that was committed to the target
+         */
+        @Nullable
+        public Object getLastKey() {
+            return lastKey;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{rowsWritten=" + rowsWritten + ", rowsPerSecond=" + Math.round(getRowsPerSecond())
+                    + ", queueDepth=" + queueDepth + ", lastKey=" + lastKey + "}";
+        }
+    }
+
+    private static class Chunk {
+        private final List<Object[]> rows;
+
+        Chunk(List<Object[]> rows) {
+            this.rows = rows;
+        }
+    }
+
+    private static final long READER_STOP_TIMEOUT_MILLIS = 10_000;
+
+    private static final CompletableFuture<Chunk> END = CompletableFuture.completedFuture(new Chunk(new ArrayList<>()));
+
+    private final DatabaseTable table;
+    private final String idColumn;
+    private String targetTableName;
+    private final List<String> columns = new ArrayList<>();
+    private final Map<String, Function<Object, Object>> transforms = new LinkedHashMap<>();
+    private int chunkSize = 1000;
+    private int queueCapacity = 8;
+    private int mappingThreads = Runtime.getRuntime().availableProcessors();
+    private boolean resume = true;
+    private Consumer<Progress> progressListener = progress -> {};
+
+    public DatabaseTableCopy(DatabaseTable table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+        this.targetTableName = table.getTableName();
+    }
+
+    /**
+     * Write to a table with a different name in the target database
+     */
+    public DatabaseTableCopy targetTable(String targetTableName) {
+        this.targetTableName = targetTableName;
+        return this;
+    }
+
+    /**
+     * Only copy the specified columns instead of all columns. The primary key is always copied.
+     */
+    public DatabaseTableCopy columns(String... columns) {
+        this.columns.addAll(Arrays.asList(columns));
+        return this;
+    }
+
+    /**
+     * Converts the value of a column before it is written to the target. The
+     * function is called from several threads at once and may be passed <code>null</code>.
+     */
+    public DatabaseTableCopy transform(String column, Function<Object, Object> transform) {
+        transforms.put(column, transform);
+        return this;
+    }
+
+    public DatabaseTableCopy chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * The number of chunks that can be read ahead of the writer
+     */
+    public DatabaseTableCopy queueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    public DatabaseTableCopy mappingThreads(int mappingThreads) {
+        this.mappingThreads = mappingThreads;
+        return this;
+    }
+
+    /**
+     * If false, copy all rows instead of starting after the highest primary key in the target table
+     */
+    public DatabaseTableCopy resume(boolean resume) {
+        this.resume = resume;
+        return this;
+    }
+
+    /**
+     * Called on the writing thread after each chunk is committed
+     */
+    public DatabaseTableCopy progressListener(Consumer<Progress> progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    public Progress copy(Connection source, Connection target) {
+        long startTime = System.nanoTime();
+        Object startAfter = resume ? new DatabaseTableImpl(targetTableName).query().max(target, idColumn) : null;
+        BlockingQueue<CompletableFuture<Chunk>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService mappingPool = Executors.newFixedThreadPool(mappingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "fluent-jdbc-copy-" + table.getTableName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<String> columnNames = new ArrayList<>();
+        AtomicReference<RuntimeException> readerException = new AtomicReference<>();
+        AtomicReference<Statement> readerStatement = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                read(source, startAfter, columnNames, queue, mappingPool, readerStatement);
+            } catch (RuntimeException e) {
+                readerException.set(e);
+            }
+        }, "fluent-jdbc-copy-reader-" + table.getTableName());
+        reader.setDaemon(true);
+        reader.start();
+
+        long rowsWritten = 0;
+        Object lastKey = startAfter;
+        try {
+            DatabaseBatchWriter writer = null;
+            while (true) {
+                CompletableFuture<Chunk> next = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (next == null) {
+                    if (readerException.get() != null) {
+                        throw readerException.get();
+                    }
+                    continue;
+                }
+                if (next == END) {
+                    break;
+                }
+                Chunk chunk = next.get();
+                if (writer == null) {
+                    writer = new DatabaseBatchWriter(targetTableName, idColumn, columnNames);
+                }
+                writer.insert(target, chunk.rows);
+                if (!target.getAutoCommit()) {
+                    target.commit();
+                }
+                rowsWritten += chunk.rows.size();
+                lastKey = writer.getId(chunk.rows.get(chunk.rows.size() - 1));
+                progressListener.accept(new Progress(rowsWritten, queue.size(), System.nanoTime() - startTime, lastKey));
+            }
+            reader.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while copying " + table.getTableName(), e);
+        } catch (ExecutionException e) {
+            throw ExceptionUtil.softenCheckedException(e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+        } catch (SQLException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        } finally {
+            stopReader(reader, readerStatement.get(), queue);
+            mappingPool.shutdownNow();
+        }
+        Progress result = new Progress(rowsWritten, 0, System.nanoTime() - startTime, lastKey);
+        logger.debug("Copied {}: {}", table.getTableName(), result);
+        return result;
+    }
+
+    /**
+     * Makes sure the reader has stopped using the source connection before {@link #copy} returns.
+     * If the writer failed, the reader may be waiting for the queue or for the database, so the
+     * queue is cleared, the reader is interrupted and the query is cancelled.
+     */
+    private void stopReader(Thread reader, @Nullable Statement statement, BlockingQueue<?> queue) {
+        if (!reader.isAlive()) {
+            return;
+        }
+        reader.interrupt();
+        queue.clear();
+        if (statement != null) {
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                logger.debug("Failed to cancel {}", statement, e);
+            }
+        }
+        try {
+            reader.join(READER_STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reader.isAlive()) {
+            logger.warn("Reader for {} did not stop within {} ms", table.getTableName(), READER_STOP_TIMEOUT_MILLIS);
+        }
+    }
+
+    private void read(Connection source, @Nullable Object startAfter, List<String> columnNames, BlockingQueue<CompletableFuture<Chunk>> queue, ExecutorService mappingPool, AtomicReference<Statement> readerStatement) {
+        String query = "select " + selectedColumns() + " from " + table.getTableName()
+                + (startAfter != null ? " where " + idColumn + " > ?" : "")
+                + " order by " + idColumn;
+        List<Object> parameters = startAfter != null ? Collections.singletonList(startAfter) : Collections.emptyList();
+        try {
+            boolean autoCommit = source.getAutoCommit();
+            // Some drivers, like PostgreSQL, only stream results with a cursor inside a transaction
+            source.setAutoCommit(false);
+            boolean interrupted;
+            try {
+                // Restore the interrupt after auto-commit, which an interrupted thread may fail to reset
+                interrupted = executeStatement(source, query, parameters, Connection::prepareStatement, (stmt, timing) -> {
+                    readerStatement.set(stmt);
+                    stmt.setFetchSize(chunkSize);
+                    int rowCount = 0;
+                    timing.executing();
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        timing.fetching();
+                        int columnCount = rs.getMetaData().getColumnCount();
+                        for (int i = 1; i <= columnCount; i++) {
+                            columnNames.add(rs.getMetaData().getColumnName(i));
+                        }
+                        Function<Object, Object>[] columnTransforms = getColumnTransforms(columnNames);
+                        List<Object[]> rows = new ArrayList<>(chunkSize);
+                        while (rs.next()) {
+                            Object[] row = new Object[columnCount];
+                            for (int i = 0; i < columnCount; i++) {
+                                row[i] = rs.getObject(i + 1);
+                            }
+                            rows.add(row);
+                            rowCount++;
+                            if (rows.size() == chunkSize) {
+                                queue.put(map(rows, columnTransforms, mappingPool));
+                                rows = new ArrayList<>(chunkSize);
+                            }
+                        }
+                        if (!rows.isEmpty()) {
+                            queue.put(map(rows, columnTransforms, mappingPool));
+                        }
+                        queue.put(END);
+                        return false;
+                    } catch (InterruptedException e) {
+                        return true;
+                    } finally {
+                        timing.setRowCount(rowCount);
+                    }
+                });
+            } finally {
+                source.setAutoCommit(autoCommit);
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } catch (SQLException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        }
+    }
+
+    private static CompletableFuture<Chunk> map(List<Object[]> rows, Function<Object, Object>[] columnTransforms, ExecutorService mappingPool) {
+        return CompletableFuture.supplyAsync(() -> {
+            for (Object[] row : rows) {
+                for (int i = 0; i < row.length; i++) {
+                    if (columnTransforms[i] != null) {
+                        row[i] = columnTransforms[i].apply(row[i]);
+                    }
+                }
+            }
+            return new Chunk(rows);
+        }, mappingPool);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Function<Object, Object>[] getColumnTransforms(List<String> columnNames) {
+        Function<Object, Object>[] result = new Function[columnNames.size()];
+        for (Map.Entry<String, Function<Object, Object>> entry : transforms.entrySet()) {
+            int index = DatabaseBatchWriter.indexOfIgnoreCase(columnNames, entry.getKey());
+            if (index < 0) {
+                throw new IllegalArgumentException("Column {" + entry.getKey() + "} is not present in " + columnNames);
+            }
+            result[index] = entry.getValue();
+        }
+        return result;
+    }
+
+    private String selectedColumns() {
+        if (columns.isEmpty()) {
+            return "*";
+        }
+        List<String> result = new ArrayList<>(columns);
+        if (DatabaseBatchWriter.indexOfIgnoreCase(result, idColumn) < 0) {
+            result.add(0, idColumn);
+        }
+        return join(", ", result);
+    }
+}
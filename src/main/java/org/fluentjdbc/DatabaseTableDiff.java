@@ -0,0 +1,331 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.dialect.DatabaseDialect;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Makes a table in a target database equal to the same table in a source database without
+ * transferring unchanged rows. This is useful for tables where <code>updated_at</code> can't be
+ * trusted, where {@link DatabaseTableSynchronizer} can't be used.
+ *
+ * <p>The range of primary keys is divided into {@link #fanOut(int)} buckets, and for each bucket,
+ * the row count and the sum of a hash of each row is calculated by the database on each side.
+ * Only buckets with different checksums are divided further. When a bucket is small enough, the
+ * hash of each row is compared, and the rows that differ are read from the source and written to
+ * the target with batched statements. The number of queries is proportional to the number of
+ * changed ranges rather than the size of the table.</p>
+ *
+ * <p>The row hash is calculated with a database specific function of the text of each column,
+ * where each column is prefixed with a marker so NULL and an empty string hash differently.
+ * The hash expression is created with the dialect of each connection, but both databases must
+ * produce the same text and hash for the same values, so both sides should normally be the same
+ * kind of database. When the hash functions differ, every range looks changed and all rows are
+ * copied. Use {@link #hashExpression(String)} with a function which both databases support or
+ * for databases where no hash function is known.</p>
+ *
+ * <p>The key ranges are calculated with arithmetic on the primary key, so the key column must be
+ * an integer type. Other keys are rejected with {@link IllegalArgumentException}.</p>
+ */
+@ParametersAreNonnullByDefault
+public class DatabaseTableDiff extends DatabaseStatement {
+
+    public static class Result {
+        private int inserted;
+        private int updated;
+        private int deleted;
+        private int rangesCompared;
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * The number of key ranges where checksums were calculated on both sides
+         */
+        public int getRangesCompared() {
+            return rangesCompared;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "{inserted=" + inserted + ", updated=" + updated
+                    + ", deleted=" + deleted + ", rangesCompared=" + rangesCompared + "}";
+        }
+    }
+
+    private final DatabaseTable table;
+    private final String idColumn;
+    private final List<String> columns = new ArrayList<>();
+    @Nullable
+    private String hashExpression;
+    private int fanOut = 16;
+    private int leafSize = 256;
+    private int batchSize = 1000;
+
+    public DatabaseTableDiff(DatabaseTable table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+    }
+
+    /**
+     * Only compare and copy the specified columns instead of all columns in the source table
+     */
+    public DatabaseTableDiff columns(String... columns) {
+        this.columns.addAll(Arrays.asList(columns));
+        return this;
+    }
+
+    /**
+     * An SQL expression which calculates an integer hash from a string, with <code>%s</code>
+     * where the string expression should be inserted, e.g. <code>ora_hash(%s)</code>
+     */
+    public DatabaseTableDiff hashExpression(String hashExpression) {
+        this.hashExpression = hashExpression;
+        return this;
+    }
+
+    public DatabaseTableDiff fanOut(int fanOut) {
+        this.fanOut = fanOut;
+        return this;
+    }
+
+    /**
+     * Compare rows one by one when a key range contains fewer than this many rows
+     */
+    public DatabaseTableDiff leafSize(int leafSize) {
+        this.leafSize = leafSize;
+        return this;
+    }
+
+    public DatabaseTableDiff batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public Result synchronize(Connection source, Connection target) {
+        List<String> columnNames = columns.isEmpty() ? getColumnNames(source) : new ArrayList<>(columns);
+        if (DatabaseBatchWriter.indexOfIgnoreCase(columnNames, idColumn) < 0) {
+            columnNames.add(0, idColumn);
+        }
+        String sourceRowHash = rowHashExpression(source, columnNames);
+        String targetRowHash = rowHashExpression(target, columnNames);
+        if (!getRowHashFunction(source).equals(getRowHashFunction(target))) {
+            logger.warn("Different row hash functions for {} in source and target, all rows will be copied", table.getTableName());
+        }
+        DatabaseBatchWriter writer = new DatabaseBatchWriter(table.getTableName(), idColumn, columnNames);
+
+        Result result = new Result();
+        long[] sourceRange = getKeyRange(source);
+        long[] targetRange = getKeyRange(target);
+        if (sourceRange == null && targetRange == null) {
+            return result;
+        }
+        long lo = sourceRange == null ? targetRange[0] : targetRange == null ? sourceRange[0] : Math.min(sourceRange[0], targetRange[0]);
+        long hi = sourceRange == null ? targetRange[1] : targetRange == null ? sourceRange[1] : Math.max(sourceRange[1], targetRange[1]);
+
+        List<Long> changedIds = new ArrayList<>();
+        List<Object> deletedIds = new ArrayList<>();
+        Deque<long[]> ranges = new ArrayDeque<>();
+        ranges.push(new long[] { lo, hi + 1 });
+        while (!ranges.isEmpty()) {
+            long[] range = ranges.pop();
+            long width = Math.max(1, (range[1] - range[0] + fanOut - 1) / fanOut);
+            Map<Long, Checksum> sourceBuckets = getChecksums(source, sourceRowHash, range, width);
+            Map<Long, Checksum> targetBuckets = getChecksums(target, targetRowHash, range, width);
+            result.rangesCompared++;
+
+            for (long bucket = 0; range[0] + bucket * width < range[1]; bucket++) {
+                Checksum sourceChecksum = sourceBuckets.get(bucket);
+                Checksum targetChecksum = targetBuckets.get(bucket);
+                if (Objects.equals(sourceChecksum, targetChecksum)) {
+                    continue;
+                }
+                long[] bucketRange = { range[0] + bucket * width, Math.min(range[1], range[0] + (bucket + 1) * width) };
+                if (width == 1 || Math.max(count(sourceChecksum), count(targetChecksum)) <= leafSize) {
+                    compareRows(source, target, sourceRowHash, targetRowHash, bucketRange, changedIds, deletedIds);
+                } else {
+                    ranges.push(bucketRange);
+                }
+            }
+            if (changedIds.size() >= batchSize) {
+                writeChanges(source, target, writer, columnNames, changedIds, result);
+            }
+        }
+        writeChanges(source, target, writer, columnNames, changedIds, result);
+        writer.delete(target, deletedIds);
+        result.deleted = deletedIds.size();
+        logger.debug("Synchronized {}: {}", table.getTableName(), result);
+        return result;
+    }
+
+    private static class Checksum {
+        private final long count;
+        private final BigDecimal hashSum;
+
+        Checksum(long count, @Nullable BigDecimal hashSum) {
+            this.count = count;
+            this.hashSum = hashSum != null ? hashSum : BigDecimal.ZERO;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Checksum)) {
+                return false;
+            }
+            Checksum other = (Checksum) o;
+            return count == other.count && hashSum.compareTo(other.hashSum) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(count);
+        }
+    }
+
+    private static long count(@Nullable Checksum checksum) {
+        return checksum != null ? checksum.count : 0;
+    }
+
+    private Map<Long, Checksum> getChecksums(Connection connection, String rowHash, long[] range, long width) {
+        // The bucket is calculated in a derived table, so the parameters don't need to be repeated in group by
+        String query = "select bucket, count(*), sum(row_hash) from ("
+                + "select (" + idColumn + " - ?) / ? as bucket, " + rowHash + " as row_hash from " + table.getTableName()
+                + " where " + idColumn + " >= ? and " + idColumn + " < ?"
+                + ") buckets group by bucket";
+        List<Object> parameters = Arrays.asList(range[0], width, range[0], range[1]);
+        return executeQuery(connection, query, parameters, DatabaseResult::new, result -> {
+            Map<Long, Checksum> checksums = new HashMap<>();
+            while (result.next()) {
+                Object hashSum = result.getObject(3);
+                checksums.put(((Number) result.getObject(1)).longValue(), new Checksum(
+                        ((Number) result.getObject(2)).longValue(), hashSum != null ? new BigDecimal(hashSum.toString()) : null));
+            }
+            return checksums;
+        });
+    }
+
+    private void compareRows(Connection source, Connection target, String sourceRowHash, String targetRowHash, long[] range, List<Long> changedIds, List<Object> deletedIds) {
+        Map<Long, Long> sourceHashes = getRowHashes(source, sourceRowHash, range);
+        Map<Long, Long> targetHashes = getRowHashes(target, targetRowHash, range);
+        for (Map.Entry<Long, Long> entry : sourceHashes.entrySet()) {
+            if (!entry.getValue().equals(targetHashes.get(entry.getKey()))) {
+                changedIds.add(entry.getKey());
+            }
+        }
+        for (Long id : targetHashes.keySet()) {
+            if (!sourceHashes.containsKey(id)) {
+                deletedIds.add(id);
+            }
+        }
+    }
+
+    private Map<Long, Long> getRowHashes(Connection connection, String rowHash, long[] range) {
+        Map<Long, Long> result = new HashMap<>();
+        table.select(idColumn, rowHash + " as row_hash")
+                .whereExpression(idColumn + " >= ?", range[0])
+                .whereExpression(idColumn + " < ?", range[1])
+                .unordered()
+                .forEach(connection, row -> result.put(row.getLong(1, 0), row.getLong(2, 0)));
+        return result;
+    }
+
+    private void writeChanges(Connection source, Connection target, DatabaseBatchWriter writer, List<String> columnNames, List<Long> changedIds, Result result) {
+        if (changedIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        table.select(columnNames.toArray(new String[0]))
+                .whereIn(idColumn, changedIds)
+                .unordered()
+                .forEach(source, row -> {
+                    Object[] values = new Object[columnNames.size()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = row.getObject(columnNames.get(i));
+                    }
+                    rows.add(values);
+                });
+        int updated = writer.upsert(target, rows);
+        result.updated += updated;
+        result.inserted += rows.size() - updated;
+        changedIds.clear();
+    }
+
+    @Nullable
+    private long[] getKeyRange(Connection connection) {
+        String query = "select min(" + idColumn + "), max(" + idColumn + ") from " + table.getTableName();
+        return executeQuery(connection, query, Collections.emptyList(), DatabaseResult::new, result -> {
+            if (!result.next()) {
+                return null;
+            }
+            Object min = result.getObject(1), max = result.getObject(2);
+            return min != null && max != null ? new long[] { toKey(min), toKey(max) } : null;
+        });
+    }
+
+    private long toKey(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof BigInteger || value instanceof BigDecimal) {
+            try {
+                return new BigDecimal(value.toString()).longValueExact();
+            } catch (ArithmeticException e) {
+                throw invalidKey(value);
+            }
+        }
+        throw invalidKey(value);
+    }
+
+    private IllegalArgumentException invalidKey(Object value) {
+        return new IllegalArgumentException("Key column " + idColumn + " of " + table.getTableName()
+                + " must be an integer type to compare key ranges, but contains " + value.getClass().getName() + " " + value);
+    }
+
+    private List<String> getColumnNames(Connection connection) {
+        String query = "select * from " + table.getTableName() + " where 1 = 0";
+        return executeQuery(connection, query, Collections.emptyList(), DatabaseResult::new, DatabaseResult::getColumnNames);
+    }
+
+    private String rowHashExpression(Connection connection, List<String> columnNames) {
+        List<String> columnTexts = new ArrayList<>();
+        for (String column : columnNames) {
+            columnTexts.add("case when " + column + " is null then 'N' else concat('V', " + column + ") end");
+        }
+        return String.format(getRowHashFunction(connection), "concat(" + join(", '|', ", columnTexts) + ", '|')");
+    }
+
+    private String getRowHashFunction(Connection connection) {
+        if (hashExpression != null) {
+            return hashExpression;
+        }
+        DatabaseDialect dialect = getDialect(connection);
+        String expression = dialect.getRowHashExpression();
+        if (expression == null) {
+            throw new IllegalStateException("No known row hash function for " + dialect.getProductName() + ", use hashExpression()");
+        }
+        return expression;
+    }
+
+}
@@ -24,6 +24,16 @@ public class DatabaseTableImpl implements DatabaseTable {
         return new DatabaseTableQueryBuilder(this).orderBy(orderByClause);
     }
 
+    @Override
+    public DatabaseSimpleQueryBuilder query() {
+        return new DatabaseTableQueryBuilder(this);
+    }
+
+    @Override
+    public DatabaseSimpleQueryBuilder select(String... columnNames) {
+        return new DatabaseTableQueryBuilder(this).select(columnNames);
+    }
+
     @Override
     public DatabaseTableAlias alias(String alias) {
         return new DatabaseTableAlias(this, alias);
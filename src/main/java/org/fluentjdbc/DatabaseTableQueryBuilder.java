@@ -1,13 +1,15 @@
 package org.fluentjdbc;
 
 import org.fluentjdbc.DatabaseTable.RowMapper;
-import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Stream;
 import javax.annotation.Nullable;
@@ -16,10 +18,13 @@ import javax.annotation.ParametersAreNonnullByDefault;
 @ParametersAreNonnullByDefault
 public class DatabaseTableQueryBuilder extends DatabaseStatement implements DatabaseSimpleQueryBuilder, DatabaseListableQueryBuilder {
 
+    private List<String> columns = new ArrayList<>();
     private List<String> conditions = new ArrayList<>();
     private List<Object> parameters = new ArrayList<>();
     private List<String> orderByClauses = new ArrayList<>();
     private DatabaseTable table;
+    @Nullable
+    private Integer limit;
 
     DatabaseTableQueryBuilder(DatabaseTable table) {
         this.table = table;
@@ -31,49 +36,164 @@ public class DatabaseTableQueryBuilder extends DatabaseStatement implements Data
 
     @Override
     public <T> List<T> list(Connection connection, RowMapper<T> mapper) {
-        long startTime = System.currentTimeMillis();
-        String query = createSelectStatement();
-        logger.trace(query);
-        try(PreparedStatement stmt = connection.prepareStatement(query)) {
-            bindParameters(stmt);
-            try (DatabaseResult result = new DatabaseResult(stmt.executeQuery())) {
-                return result.list(mapper);
-            }
-        } catch (SQLException e) {
-            throw ExceptionUtil.softenCheckedException(e);
-        } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
+        if (limit != null || !orderByClauses.isEmpty()) {
+            return query(connection, selectedColumns(), orderByClause(), limit, result -> result.list(mapper));
+        }
+        List<List<Object>> chunks = splitInLists(connection, parameters);
+        if (chunks.size() == 1) {
+            return query(connection, selectedColumns(), "", null, parameters, result -> result.list(mapper));
         }
+        List<T> rows = new ArrayList<>();
+        for (List<Object> chunk : chunks) {
+            rows.addAll(query(connection, selectedColumns(), "", null, chunk, result -> result.list(mapper)));
+        }
+        return rows;
     }
 
     @Nullable
     @Override
     public <T> T singleObject(Connection connection, RowMapper<T> mapper) {
-        long startTime = System.currentTimeMillis();
-        String query = createSelectStatement();
-        logger.trace(query);
-        try(PreparedStatement stmt = connection.prepareStatement(query)) {
-            bindParameters(stmt);
-            try (DatabaseResult result = new DatabaseResult(stmt.executeQuery())) {
-                return result.single(mapper);
+        return query(connection, selectedColumns(), orderByClause(), minLimit(limit, 2), result -> result.single(mapper));
+    }
+
+    @Override
+    public LongArrayList longColumn(Connection connection, String fieldName) {
+        return query(connection, selectedColumns(), orderByClause(), limit, result -> result.longColumn(fieldName));
+    }
+
+    @Override
+    public IntArrayList intColumn(Connection connection, String fieldName) {
+        return query(connection, selectedColumns(), orderByClause(), limit, result -> result.intColumn(fieldName));
+    }
+
+    @Override
+    public DoubleArrayList doubleColumn(Connection connection, String fieldName) {
+        return query(connection, selectedColumns(), orderByClause(), limit, result -> result.doubleColumn(fieldName));
+    }
+
+    @Override
+    public void forEach(Connection connection, DatabaseTable.RowConsumer consumer) {
+        List<List<Object>> chunks = limit != null || !orderByClauses.isEmpty()
+                ? Collections.singletonList(parameters) : splitInLists(connection, parameters);
+        for (List<Object> chunk : chunks) {
+            query(connection, selectedColumns(), orderByClause(), limit, chunk, result -> {
+                result.forEach(consumer);
+                return null;
+            });
+        }
+    }
+
+    @Override
+    public DatabaseColumnarTable columnar(Connection connection) {
+        return query(connection, selectedColumns(), orderByClause(), limit, DatabaseResult::columnar);
+    }
+
+    @Nullable
+    @Override
+    public <T> T first(Connection connection, RowMapper<T> mapper) {
+        return query(connection, selectedColumns(), orderByClause(), minLimit(limit, 1), result -> result.first(mapper));
+    }
+
+    @Override
+    public long count(Connection connection) {
+        long count = 0;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            Number chunkCount = aggregate(connection, "count(*)", chunk);
+            count += chunkCount != null ? chunkCount.longValue() : 0;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean exists(Connection connection) {
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            if (query(connection, "1", "", 1, chunk, DatabaseResult::next)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public Number min(Connection connection, String fieldName) {
+        Number min = null;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            min = minOf(min, aggregate(connection, "min(" + fieldName + ")", chunk));
+        }
+        return min;
+    }
+
+    @Nullable
+    @Override
+    public Number max(Connection connection, String fieldName) {
+        Number max = null;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            max = maxOf(max, aggregate(connection, "max(" + fieldName + ")", chunk));
+        }
+        return max;
+    }
+
+    @Nullable
+    @Override
+    public Number sum(Connection connection, String fieldName) {
+        Number sum = null;
+        for (List<Object> chunk : splitInLists(connection, parameters)) {
+            sum = addSums(sum, aggregate(connection, "sum(" + fieldName + ")", chunk));
+        }
+        return sum;
+    }
+
+    @Override
+    public DatabaseGroupedQueryBuilder groupBy(String... fieldNames) {
+        return new DatabaseGroupedQueryBuilder(Arrays.asList(fieldNames)) {
+            @Override
+            <T> T query(Connection connection, String columns, String groupByClause, DatabaseResult.ResultMapper<T> resultMapper) {
+                return DatabaseTableQueryBuilder.this.query(connection, columns, groupByClause, null, resultMapper);
             }
-        } catch (SQLException e) {
-            throw ExceptionUtil.softenCheckedException(e);
-        } finally {
-            logger.debug("time={}s query=\"{}\"",
-                    (System.currentTimeMillis()-startTime)/1000.0, query);
+        };
+    }
+
+    @Nullable
+    private Number aggregate(Connection connection, String expression, List<Object> parameters) {
+        return query(connection, expression, "", null, parameters, result -> result.next() ? (Number) result.getObject(1) : null);
+    }
+
+    @Override
+    public DatabaseTableQueryBuilder select(String... columnNames) {
+        columns.addAll(Arrays.asList(columnNames));
+        return this;
+    }
+
+    @Override
+    public DatabaseTableQueryBuilder limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit " + limit);
         }
+        this.limit = limit;
+        return this;
     }
 
-    private int bindParameters(PreparedStatement stmt) throws SQLException {
-        return bindParameters(stmt, parameters);
+    private <T> T query(Connection connection, String columns, String suffix, @Nullable Integer limit, DatabaseResult.ResultMapper<T> resultMapper) {
+        return query(connection, columns, suffix, limit, parameters, resultMapper);
     }
 
-    private String createSelectStatement() {
-        return "select *" + fromClause()
-                + (conditions.isEmpty() ? "" : " where " + join(" AND ", conditions))
-                + (orderByClauses.isEmpty() ? "" : " order by " + join(", ", orderByClauses));
+    private <T> T query(Connection connection, String columns, String suffix, @Nullable Integer limit, List<Object> parameters, DatabaseResult.ResultMapper<T> resultMapper) {
+        checkParameterCount(connection, parameters);
+        String query = createSelectSql(connection, columns, fromClause() + whereClause() + suffix, limit);
+        return executeQuery(connection, query, parameters, DatabaseResult::new, resultMapper);
+    }
+
+    private String selectedColumns() {
+        return columns.isEmpty() ? "*" : join(", ", columns);
+    }
+
+    private String whereClause() {
+        return conditions.isEmpty() ? "" : " where " + join(" AND ", conditions);
+    }
+
+    private String orderByClause() {
+        return orderByClauses.isEmpty() ? "" : " order by " + join(", ", orderByClauses);
     }
 
     protected String fromClause() {
@@ -87,9 +207,7 @@ public class DatabaseTableQueryBuilder extends DatabaseStatement implements Data
     }
 
     public DatabaseTableQueryBuilder whereIn(String fieldName, Collection<?> parameters) {
-        whereExpression(fieldName + " IN (" + join(",", repeat("?", parameters.size())) + ")");
-        this.parameters.addAll(parameters);
-        return this;
+        return whereExpression(fieldName + " IN (?)", new InListParameter(parameters));
     }
 
     public DatabaseTableQueryBuilder whereExpressionWithMultipleParameters(String expression, Collection<?> parameters) {
@@ -0,0 +1,226 @@
+package org.fluentjdbc;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Copies rows that changed since the last synchronization from a source database to a target
+ * database, based on the <code>updated_at</code> column maintained by {@link DatabaseTableWithTimestamps}.
+ *
+ * <p>Rows are read in chunks ordered by <code>(updated_at, id)</code>, where each chunk starts
+ * after the last row of the previous chunk, so rows with the same <code>updated_at</code> are
+ * never skipped between chunks. Each chunk is written to the target with one batched
+ * <code>update</code> for existing rows and one batched <code>insert</code> for new rows, and
+ * then the watermark is saved with the {@link WatermarkStore}.</p>
+ *
+ * <p>The next synchronization starts {@link #overlap(Duration)} before the saved watermark.
+ * Rows in the overlap are written again, which is harmless, but rows that were committed late
+ * with an earlier <code>updated_at</code>, e.g. because of a long transaction or clock skew
+ * between application servers, are not lost.</p>
+ *
+ * <p>Rows where <code>updated_at</code> is NULL can't be ordered by time. They are copied in
+ * chunks ordered by id on the first synchronization, when there is no saved watermark, and are
+ * ignored by later synchronizations.</p>
+ *
+ * <pre>
+ * new DatabaseTableSynchronizer(table, "id")
+ *     .overlap(Duration.ofMinutes(1))
+ *     .synchronize(serverConnection, clientConnection, new DatabaseTableSynchronizer.TableWatermarkStore("sync_watermarks"));
+ * </pre>
+ */
+@ParametersAreNonnullByDefault
+public class DatabaseTableSynchronizer extends DatabaseStatement {
+
+    /**
+     * Remembers how far each table has been synchronized. The watermark is saved
+     * on the target connection after each chunk, so with a transactional
+     * target it is committed together with the rows.
+     */
+    public interface WatermarkStore {
+        @Nullable
+        Instant load(Connection target, String tableName);
+
+        void save(Connection target, String tableName, Instant watermark);
+    }
+
+    /**
+     * Stores watermarks in a table with the columns <code>table_name</code> and <code>watermark</code>
+     * in the target database
+     */
+    public static class TableWatermarkStore implements WatermarkStore {
+        private final DatabaseTable table;
+
+        public TableWatermarkStore(String tableName) {
+            this.table = new DatabaseTableImpl(tableName);
+        }
+
+        @Nullable
+        @Override
+        public Instant load(Connection target, String tableName) {
+            return table.where("table_name", tableName).singleInstant(target, "watermark");
+        }
+
+        @Override
+        public void save(Connection target, String tableName, Instant watermark) {
+            if (table.where("table_name", tableName).exists(target)) {
+                table.where("table_name", tableName).update().setField("watermark", watermark).execute(target);
+            } else {
+                table.insert().setField("table_name", tableName).setField("watermark", watermark).execute(target);
+            }
+        }
+    }
+
+    private final DatabaseTable table;
+    private final String idColumn;
+    private String updatedAtColumn = "updated_at";
+    private List<String> columns = new ArrayList<>();
+    private int chunkSize = 1000;
+    private Duration overlap = Duration.ZERO;
+
+    public DatabaseTableSynchronizer(DatabaseTable table, String idColumn) {
+        this.table = table;
+        this.idColumn = idColumn;
+    }
+
+    public DatabaseTableSynchronizer updatedAtColumn(String updatedAtColumn) {
+        this.updatedAtColumn = updatedAtColumn;
+        return this;
+    }
+
+    /**
+     * Only copy the specified columns instead of all columns. The id and
+     * updated at columns are always copied.
+     */
+    public DatabaseTableSynchronizer columns(String... columns) {
+        this.columns.addAll(Arrays.asList(columns));
+        return this;
+    }
+
+    public DatabaseTableSynchronizer chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * Reads rows from this long before the saved watermark to catch rows which were
+     * committed after the previous synchronization with an earlier timestamp
+     */
+    public DatabaseTableSynchronizer overlap(Duration overlap) {
+        this.overlap = overlap;
+        return this;
+    }
+
+    /**
+     * Copies rows changed since the last synchronization and returns the number of rows written
+     */
+    public int synchronize(Connection source, Connection target, WatermarkStore watermarkStore) {
+        Instant watermark = watermarkStore.load(target, table.getTableName());
+        Instant from = watermark != null ? watermark.minus(overlap) : null;
+        int rowCount = watermark == null ? copyRowsWithoutTimestamp(source, target) : 0;
+        Chunk chunk = readChunk(source, from, null);
+        while (!chunk.rows.isEmpty()) {
+            writeChunk(target, chunk);
+            rowCount += chunk.rows.size();
+            watermarkStore.save(target, table.getTableName(), chunk.lastUpdatedAt);
+            if (chunk.rows.size() < chunkSize) {
+                break;
+            }
+            chunk = readChunk(source, chunk.lastUpdatedAt, chunk.lastId);
+        }
+        logger.debug("Synchronized {} rows of {} from watermark {}", rowCount, table.getTableName(), watermark);
+        return rowCount;
+    }
+
+    private static class Chunk {
+        final List<String> columns;
+        final List<Object[]> rows = new ArrayList<>();
+        Instant lastUpdatedAt;
+        Object lastId;
+
+        Chunk(List<String> columns) {
+            this.columns = columns;
+        }
+    }
+
+    private int copyRowsWithoutTimestamp(Connection source, Connection target) {
+        int rowCount = 0;
+        Object afterId = null;
+        while (true) {
+            Chunk chunk = afterId == null
+                    ? readChunk(source, " where " + updatedAtColumn + " is null", idColumn, new ArrayList<>())
+                    : readChunk(source, " where " + updatedAtColumn + " is null and " + idColumn + " > ?", idColumn, Arrays.asList(afterId));
+            if (chunk.rows.isEmpty()) {
+                return rowCount;
+            }
+            writeChunk(target, chunk);
+            rowCount += chunk.rows.size();
+            if (chunk.rows.size() < chunkSize) {
+                return rowCount;
+            }
+            afterId = chunk.lastId;
+        }
+    }
+
+    private Chunk readChunk(Connection source, @Nullable Instant from, @Nullable Object afterId) {
+        List<Object> parameters = new ArrayList<>();
+        String whereClause;
+        if (from == null) {
+            whereClause = " where " + updatedAtColumn + " is not null";
+        } else if (afterId == null) {
+            whereClause = " where " + updatedAtColumn + " >= ?";
+            parameters.add(from);
+        } else {
+            whereClause = " where (" + updatedAtColumn + " > ? or (" + updatedAtColumn + " = ? and " + idColumn + " > ?))";
+            parameters.addAll(Arrays.asList(from, from, afterId));
+        }
+        return readChunk(source, whereClause, updatedAtColumn + ", " + idColumn, parameters);
+    }
+
+    private Chunk readChunk(Connection source, String whereClause, String orderBy, List<Object> parameters) {
+        String query = createSelectSql(source, selectedColumns(),
+                " from " + table.getTableName() + whereClause + " order by " + orderBy,
+                chunkSize);
+        return executeQuery(source, query, parameters, DatabaseResult::new, result -> {
+            Chunk chunk = new Chunk(result.getColumnNames());
+            int idIndex = DatabaseBatchWriter.indexOfIgnoreCase(chunk.columns, idColumn);
+            int updatedAtIndex = DatabaseBatchWriter.indexOfIgnoreCase(chunk.columns, updatedAtColumn);
+            while (result.next()) {
+                Object[] row = new Object[chunk.columns.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = result.getObject(i + 1);
+                }
+                chunk.rows.add(row);
+                chunk.lastId = row[idIndex];
+                chunk.lastUpdatedAt = result.getInstant(updatedAtIndex + 1);
+            }
+            return chunk;
+        });
+    }
+
+    private void writeChunk(Connection target, Chunk chunk) {
+        int updates = new DatabaseBatchWriter(table.getTableName(), idColumn, chunk.columns).upsert(target, chunk.rows);
+        logger.trace("Wrote {} updates and {} inserts to {}", updates, chunk.rows.size() - updates, table.getTableName());
+    }
+
+    private String selectedColumns() {
+        if (columns.isEmpty()) {
+            return "*";
+        }
+        List<String> result = new ArrayList<>(columns);
+        if (DatabaseBatchWriter.indexOfIgnoreCase(result, idColumn) < 0) {
+            result.add(0, idColumn);
+        }
+        if (DatabaseBatchWriter.indexOfIgnoreCase(result, updatedAtColumn) < 0) {
+            result.add(updatedAtColumn);
+        }
+        return join(", ", result);
+    }
+
+}
@@ -1,11 +1,131 @@
 package org.fluentjdbc;
 
+import org.fluentjdbc.dialect.DatabaseDialect;
+import org.fluentjdbc.dialect.DatabaseDialects;
+
+import javax.annotation.Nullable;
 import javax.sql.DataSource;
 import java.sql.Connection;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class DbContext {
 
+    @Nullable
+    private Duration holdTimeWarning;
+    private double allocationStackSampling = 0;
+    private boolean releaseBetweenStatements = false;
+    private boolean countQueries = false;
+    private int repeatedQueryThreshold = 0;
+    private boolean failOnRepeatedQueries = false;
+    @Nullable
+    private DatabaseDialect dialect;
+    private final Map<DataSource, DatabaseDialect> detectedDialects = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Logs a warning when a {@link DbContextConnection} holds a connection for longer than this.
+     * Hold times are also reported to {@link QueryListener#connectionReleased(ConnectionHoldEvent)}.
+     */
+    public DbContext holdTimeWarning(@Nullable Duration holdTimeWarning) {
+        this.holdTimeWarning = holdTimeWarning;
+        return this;
+    }
+
+    /**
+     * Records where {@link #startConnection} was called for this fraction of connections (between 0 and 1),
+     * to include in hold time warnings. Capturing the stack is too costly to do for every connection.
+     */
+    public DbContext allocationStackSampling(double allocationStackSampling) {
+        this.allocationStackSampling = allocationStackSampling;
+        return this;
+    }
+
+    /**
+     * Closes the physical connection after each statement when it is in auto-commit mode, so
+     * that code which does something slow between statements doesn't starve the connection pool.
+     * A connection is acquired again for the next statement, also when the caller keeps using
+     * the connection returned by {@link #getThreadConnection()}.
+     */
+    public DbContext releaseBetweenStatements(boolean releaseBetweenStatements) {
+        this.releaseBetweenStatements = releaseBetweenStatements;
+        return this;
+    }
+
+    /**
+     * Counts the statements executed in each {@link DbContextConnection} by {@link org.fluentjdbc.util.SqlFingerprint query shape},
+     * available from {@link DbContextConnection#getQueryCounts()}
+     */
+    public DbContext countQueries(boolean countQueries) {
+        this.countQueries = countQueries;
+        return this;
+    }
+
+    /**
+     * Logs a warning with the calling stack when the same query shape is executed more than
+     * <code>threshold</code> times in one {@link DbContextConnection}, which usually means that
+     * a query is executed in a loop (the N+1 problem)
+     */
+    public DbContext repeatedQueryThreshold(int threshold) {
+        this.repeatedQueryThreshold = threshold;
+        return countQueries(true);
+    }
+
+    /**
+     * Throw {@link IllegalStateException} instead of logging when {@link #repeatedQueryThreshold(int)} is exceeded
+     */
+    public DbContext failOnRepeatedQueries(boolean failOnRepeatedQueries) {
+        this.failOnRepeatedQueries = failOnRepeatedQueries;
+        return this;
+    }
+
+    boolean isCountQueries() {
+        return countQueries;
+    }
+
+    int getRepeatedQueryThreshold() {
+        return repeatedQueryThreshold;
+    }
+
+    boolean isFailOnRepeatedQueries() {
+        return failOnRepeatedQueries;
+    }
+
+    @Nullable
+    Duration getHoldTimeWarning() {
+        return holdTimeWarning;
+    }
+
+    boolean isReleaseBetweenStatements() {
+        return releaseBetweenStatements;
+    }
+
+    /**
+     * Use this dialect instead of detecting it. Otherwise, the dialect is detected once per
+     * {@link DataSource}, or once per {@link DbContextConnection} for a {@link ConnectionSupplier},
+     * as suppliers are often created for each call to {@link #startConnection(ConnectionSupplier)}.
+     */
+    public DbContext dialect(@Nullable DatabaseDialect dialect) {
+        this.dialect = dialect;
+        return this;
+    }
+
+    DatabaseDialect getDialect(@Nullable DataSource dataSource, Connection connection) {
+        if (dialect != null) {
+            return dialect;
+        } else if (dataSource == null) {
+            return DatabaseDialects.detect(connection);
+        }
+        return detectedDialects.computeIfAbsent(dataSource, key -> DatabaseDialects.detect(connection));
+    }
+
+    int getDetectedDialectCount() {
+        return detectedDialects.size();
+    }
+
     public DbTableContext table(DatabaseTable table) {
         return new DbTableContext(table, this);
     }
@@ -19,14 +139,20 @@ public class DbContext {
     }
 
     public DbContextConnection startConnection(DataSource dataSource) {
-        return startConnection(dataSource::getConnection);
+        return startConnection(dataSource::getConnection, dataSource);
     }
 
     public DbContextConnection startConnection(ConnectionSupplier connectionSupplier) {
+        return startConnection(connectionSupplier, null);
+    }
+
+    private DbContextConnection startConnection(ConnectionSupplier connectionSupplier, @Nullable DataSource dataSource) {
         if (currentConnection.get() != null) {
             throw new IllegalStateException("Don't set twice in a thread!");
         }
-        currentConnection.set(new DbContextConnection(connectionSupplier, this));
+        Throwable allocationStack = allocationStackSampling > 0 && ThreadLocalRandom.current().nextDouble() < allocationStackSampling
+                ? new Throwable("Connection started here") : null;
+        currentConnection.set(new DbContextConnection(connectionSupplier, dataSource, this, allocationStack));
         currentCache.set(new HashMap<>());
         return currentConnection.get();
     }
@@ -35,12 +161,59 @@ public class DbContext {
         if (currentConnection.get() == null) {
             throw new IllegalStateException("Call startConnection first");
         }
-        return currentConnection.get().getConnection();
+        return currentConnection.get().getThreadConnection();
     }
 
     private static ThreadLocal<DbContextConnection> currentConnection = new ThreadLocal<>();
     private static ThreadLocal<HashMap<String, HashMap<Object, Object>>> currentCache = new ThreadLocal<>();
 
+    /**
+     * Called before each statement executed by fluent-jdbc on this thread
+     */
+    static void statementStarting(String query) {
+        DbContextConnection connection = currentConnection.get();
+        if (connection != null) {
+            connection.statementStarting(query);
+        }
+    }
+
+    /**
+     * Called after each statement executed by fluent-jdbc on this thread, also if it failed
+     */
+    static void statementExecuted(long startTime, long endTime) {
+        DbContextConnection connection = currentConnection.get();
+        if (connection != null) {
+            connection.statementExecuted(startTime, endTime);
+        }
+    }
+
+    /**
+     * The dialect of <code>connection</code> if it is the current connection of this thread
+     */
+    @Nullable
+    static DatabaseDialect currentDialect(Connection connection) {
+        DbContextConnection contextConnection = currentConnection.get();
+        return contextConnection != null ? contextConnection.getDialect(connection) : null;
+    }
+
+    /**
+     * Called while a result is being read, so that statements executed by the result mapper
+     * don't release the connection
+     */
+    static void resultOpened() {
+        DbContextConnection connection = currentConnection.get();
+        if (connection != null) {
+            connection.resultOpened();
+        }
+    }
+
+    static void resultClosed() {
+        DbContextConnection connection = currentConnection.get();
+        if (connection != null) {
+            connection.resultClosed();
+        }
+    }
+
     void removeFromThread() {
         currentCache.get().clear();
         currentCache.remove();
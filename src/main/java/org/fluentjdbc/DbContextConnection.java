@@ -1,44 +1,226 @@
 package org.fluentjdbc;
 
+import org.fluentjdbc.dialect.DatabaseDialect;
 import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.util.SqlFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class DbContextConnection implements AutoCloseable {
 
+    private static final Logger logger = LoggerFactory.getLogger(DbContextConnection.class);
+
     private ConnectionSupplier connectionSupplier;
+    @Nullable
+    private final DataSource dataSource;
     private Connection connection;
+    @Nullable
+    private Connection connectionProxy;
+    private boolean closed;
+    @Nullable
+    private DatabaseDialect dialect;
     private DbContext context;
+    @Nullable
+    private final Throwable allocationStack;
+
+    private long acquireNanos;
+    private long acquiredTime;
+    private long lastStatementEnd;
+    private long idleNanos;
+    private int statementCount;
+    private int openResults;
+    private final Map<String, Integer> queryCounts = new LinkedHashMap<>();
 
     public DbContextConnection(ConnectionSupplier connectionSupplier, DbContext context) {
+        this(connectionSupplier, null, context, null);
+    }
+
+    DbContextConnection(ConnectionSupplier connectionSupplier, @Nullable DataSource dataSource, DbContext context, @Nullable Throwable allocationStack) {
         this.connectionSupplier = connectionSupplier;
+        this.dataSource = dataSource;
         this.context = context;
+        this.allocationStack = allocationStack;
     }
 
     @Override
     public void close() {
-        if (connection != null) {
+        closed = true;
+        try {
+            release();
+        } finally {
+            context.removeFromThread();
+        }
+        if (!queryCounts.isEmpty()) {
+            logger.debug("Queries executed: {}", queryCounts);
+        }
+    }
+
+    /**
+     * The connection which is handed out by {@link DbContext#getThreadConnection()}. When
+     * {@link DbContext#releaseBetweenStatements(boolean)} is enabled, this is a proxy which acquires
+     * a new physical connection if it is used after the previous one was released, so that callers
+     * and builders can keep using the same object for several statements.
+     */
+    Connection getThreadConnection() {
+        if (!context.isReleaseBetweenStatements()) {
+            return getConnection();
+        }
+        if (connectionProxy == null) {
+            connectionProxy = createConnectionProxy();
+        }
+        return connectionProxy;
+    }
+
+    private Connection createConnectionProxy() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "DbContextConnection[" + connection + "]";
+                case "isClosed":
+                    return closed;
+                case "close":
+                    release();
+                    return null;
+            }
             try {
-                connection.close();
-            } catch (SQLException e) {
-                throw ExceptionUtil.softenCheckedException(e);
+                return method.invoke(getConnection(), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
             }
-        }
-        context.removeFromThread();
+        });
     }
 
     Connection getConnection() {
+        if (closed) {
+            throw new IllegalStateException("DbContextConnection is closed");
+        }
         if (connection == null) {
+            QueryListeners.connectionAcquireStarted();
+            long startTime = System.nanoTime();
+            SQLException error = null;
             try {
                 connection = connectionSupplier.getConnection();
             } catch (SQLException e) {
+                error = e;
                 throw ExceptionUtil.softenCheckedException(e);
+            } finally {
+                long endTime = System.nanoTime();
+                acquireNanos = endTime - startTime;
+                acquiredTime = lastStatementEnd = endTime;
+                idleNanos = 0;
+                statementCount = 0;
+                QueryListeners.connectionAcquired(startTime, endTime, error);
             }
         }
         return connection;
     }
 
+    @Nullable
+    DatabaseDialect getDialect(Connection connection) {
+        if (connection != this.connection && connection != connectionProxy) {
+            return null;
+        }
+        if (dialect == null) {
+            dialect = context.getDialect(dataSource, connection);
+        }
+        return dialect;
+    }
+
+    /**
+     * The number of statements executed by each query shape during the lifetime of this
+     * object, if {@link DbContext#countQueries(boolean)} is enabled
+     */
+    public Map<String, Integer> getQueryCounts() {
+        return Collections.unmodifiableMap(queryCounts);
+    }
+
+    /**
+     * Counts the query before it is executed, so that {@link DbContext#failOnRepeatedQueries(boolean)}
+     * stops the statement before it runs instead of replacing its result or error afterwards
+     */
+    void statementStarting(String query) {
+        if (context.isCountQueries()) {
+            countQuery(query);
+        }
+    }
+
+    void statementExecuted(long startTime, long endTime) {
+        if (connection == null) {
+            return;
+        }
+        idleNanos += Math.max(0, startTime - lastStatementEnd);
+        lastStatementEnd = endTime;
+        statementCount++;
+        if (context.isReleaseBetweenStatements() && openResults == 0) {
+            try {
+                if (connection.getAutoCommit()) {
+                    release();
+                }
+            } catch (SQLException e) {
+                throw ExceptionUtil.softenCheckedException(e);
+            }
+        }
+    }
+
+    private void countQuery(String query) {
+        String fingerprint = SqlFingerprint.of(query);
+        int count = queryCounts.merge(fingerprint, 1, Integer::sum);
+        int threshold = context.getRepeatedQueryThreshold();
+        if (threshold > 0 && count > threshold) {
+            String message = "Query executed more than " + threshold + " times in one connection: " + fingerprint;
+            if (context.isFailOnRepeatedQueries()) {
+                throw new IllegalStateException(message);
+            } else if (count == threshold + 1) {
+                logger.warn(message, new Throwable("Called from"));
+            }
+        }
+    }
+
+    void resultOpened() {
+        openResults++;
+    }
+
+    void resultClosed() {
+        openResults--;
+    }
+
+    private void release() {
+        if (connection == null) {
+            return;
+        }
+        long endTime = System.nanoTime();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        } finally {
+            connection = null;
+            ConnectionHoldEvent event = new ConnectionHoldEvent(acquireNanos, endTime - acquiredTime,
+                    idleNanos + (endTime - lastStatementEnd), statementCount, allocationStack);
+            Duration holdTimeWarning = context.getHoldTimeWarning();
+            if (holdTimeWarning != null && event.getHoldNanos() > holdTimeWarning.toNanos()) {
+                logger.warn("Connection was held for {}ms, idle for {}ms, with {} statements",
+                        event.getHoldNanos() / 1_000_000, event.getIdleNanos() / 1_000_000, statementCount, allocationStack);
+            }
+            QueryListeners.connectionReleased(event);
+        }
+    }
+
     public void commitTransaction() {
         if (connection != null) {
             try {
@@ -0,0 +1,21 @@
+package org.fluentjdbc;
+
+import java.util.Map;
+
+import org.fluentjdbc.DatabaseTable.RowMapper;
+
+public class DbGroupedSelectContext {
+
+    private DbTableContext tableContext;
+    private DatabaseGroupedQueryBuilder groupedQuery;
+
+    public DbGroupedSelectContext(DbTableContext tableContext, DatabaseGroupedQueryBuilder groupedQuery) {
+        this.tableContext = tableContext;
+        this.groupedQuery = groupedQuery;
+    }
+
+    public <KEY> Map<KEY, Long> count(RowMapper<KEY> keyMapper) {
+        return groupedQuery.count(tableContext.getConnection(), keyMapper);
+    }
+
+}
@@ -1,5 +1,9 @@
 package org.fluentjdbc;
 
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
+
 import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.List;
@@ -18,11 +22,52 @@ public class DbJoinedSelectContext implements DbListableSelectContext<DbJoinedSe
         return this;
     }
 
+    public DbJoinedSelectContext select(DatabaseColumnReference... columns) {
+        builder.select(columns);
+        return this;
+    }
+
+    @Override
+    public void forEach(DatabaseTable.RowConsumer consumer) {
+        builder.forEach(dbContext.getThreadConnection(), consumer);
+    }
+
+    @Override
+    public DatabaseColumnarTable columnar() {
+        return builder.columnar(dbContext.getThreadConnection());
+    }
+
+    @Override
+    public LongArrayList longColumn(String fieldName) {
+        return builder.longColumn(dbContext.getThreadConnection(), fieldName);
+    }
+
+    @Override
+    public IntArrayList intColumn(String fieldName) {
+        return builder.intColumn(dbContext.getThreadConnection(), fieldName);
+    }
+
+    @Override
+    public DoubleArrayList doubleColumn(String fieldName) {
+        return builder.doubleColumn(dbContext.getThreadConnection(), fieldName);
+    }
+
     @Override
     public <OBJECT> List<OBJECT> list(DatabaseTable.RowMapper<OBJECT> mapper) {
         return builder.list(dbContext.getThreadConnection(), mapper);
     }
 
+    @Override
+    public <OBJECT> OBJECT first(DatabaseTable.RowMapper<OBJECT> mapper) {
+        return builder.first(dbContext.getThreadConnection(), mapper);
+    }
+
+    @Override
+    public DbJoinedSelectContext limit(int limit) {
+        builder.limit(limit);
+        return this;
+    }
+
     @Override
     public DbJoinedSelectContext whereExpression(String expression, @Nullable Object value) {
         builder.whereExpression(expression, value);
@@ -57,6 +102,14 @@ public class DbJoinedSelectContext implements DbListableSelectContext<DbJoinedSe
         return builder.singleObject(dbContext.getThreadConnection(), mapper);
     }
 
+    public long count() {
+        return builder.count(dbContext.getThreadConnection());
+    }
+
+    public boolean exists() {
+        return builder.exists(dbContext.getThreadConnection());
+    }
+
     public DbJoinedSelectContext unordered() {
         builder.unordered();
         return this;
@@ -4,15 +4,32 @@ import java.time.Instant;
 import java.util.List;
 
 import org.fluentjdbc.DatabaseTable.RowMapper;
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
 
 public interface DbListableSelectContext<T extends DbListableSelectContext<T>> extends DatabaseQueriable<T> {
 
+    T limit(int limit);
+
     <OBJECT> List<OBJECT> list(RowMapper<OBJECT> object);
 
+    void forEach(DatabaseTable.RowConsumer consumer);
+
+    <OBJECT> OBJECT first(RowMapper<OBJECT> mapper);
+
     default List<String> listStrings(String fieldName) {
         return list(row -> row.getString(fieldName));
     }
 
+    LongArrayList longColumn(String fieldName);
+
+    IntArrayList intColumn(String fieldName);
+
+    DoubleArrayList doubleColumn(String fieldName);
+
+    DatabaseColumnarTable columnar();
+
     default List<Long> listLongs(String fieldName) {
         return list(row -> row.getLong(fieldName));
     }
@@ -7,6 +7,9 @@ import java.util.List;
 import java.util.stream.Stream;
 
 import org.fluentjdbc.DatabaseTable.RowMapper;
+import org.fluentjdbc.util.DoubleArrayList;
+import org.fluentjdbc.util.IntArrayList;
+import org.fluentjdbc.util.LongArrayList;
 
 import javax.annotation.Nullable;
 
@@ -50,6 +53,11 @@ public class DbSelectContext implements DbListableSelectContext<DbSelectContext>
         return this;
     }
 
+    public DbSelectContext select(String... columnNames) {
+        queryBuilder.select(columnNames);
+        return this;
+    }
+
     public DbSelectContext orderBy(String orderByClause) {
         queryBuilder.orderBy(orderByClause);
         return this;
@@ -60,6 +68,12 @@ public class DbSelectContext implements DbListableSelectContext<DbSelectContext>
         return this;
     }
 
+    @Override
+    public DbSelectContext limit(int limit) {
+        queryBuilder.limit(limit);
+        return this;
+    }
+
     private Connection getConnection() {
         return dbTableContext.getConnection();
     }
@@ -72,11 +86,41 @@ public class DbSelectContext implements DbListableSelectContext<DbSelectContext>
         return queryBuilder.stream(getConnection(), mapper);
     }
 
+    @Override
+    public void forEach(DatabaseTable.RowConsumer consumer) {
+        queryBuilder.forEach(getConnection(), consumer);
+    }
+
+    @Override
+    public DatabaseColumnarTable columnar() {
+        return queryBuilder.columnar(getConnection());
+    }
+
+    @Override
+    public LongArrayList longColumn(String fieldName) {
+        return queryBuilder.longColumn(getConnection(), fieldName);
+    }
+
+    @Override
+    public IntArrayList intColumn(String fieldName) {
+        return queryBuilder.intColumn(getConnection(), fieldName);
+    }
+
+    @Override
+    public DoubleArrayList doubleColumn(String fieldName) {
+        return queryBuilder.doubleColumn(getConnection(), fieldName);
+    }
+
     @Override
     public <T> List<T> list(RowMapper<T> mapper) {
         return queryBuilder.list(getConnection(), mapper);
     }
 
+    @Override
+    public <T> T first(RowMapper<T> mapper) {
+        return queryBuilder.first(getConnection(), mapper);
+    }
+
     public <T> T singleObject(RowMapper<T> mapper) {
         return queryBuilder.singleObject(getConnection(), mapper);
     }
@@ -93,6 +137,30 @@ public class DbSelectContext implements DbListableSelectContext<DbSelectContext>
         return queryBuilder.singleInstant(getConnection(), fieldName);
     }
 
+    public long count() {
+        return queryBuilder.count(getConnection());
+    }
+
+    public boolean exists() {
+        return queryBuilder.exists(getConnection());
+    }
+
+    public Number min(String fieldName) {
+        return queryBuilder.min(getConnection(), fieldName);
+    }
+
+    public Number max(String fieldName) {
+        return queryBuilder.max(getConnection(), fieldName);
+    }
+
+    public Number sum(String fieldName) {
+        return queryBuilder.sum(getConnection(), fieldName);
+    }
+
+    public DbGroupedSelectContext groupBy(String... fieldNames) {
+        return new DbGroupedSelectContext(dbTableContext, queryBuilder.groupBy(fieldNames));
+    }
+
     public DbContextUpdateBuilder update() {
         return new DbContextUpdateBuilder(this.dbTableContext, queryBuilder.update());
     }
@@ -47,6 +47,14 @@ public class DbTableContext implements DatabaseQueriable<DbSelectContext> {
         return new DbSelectContext(this).whereExpressionWithMultipleParameters(expression, parameters);
     }
 
+    public DbSelectContext query() {
+        return new DbSelectContext(this);
+    }
+
+    public DbSelectContext select(String... columnNames) {
+        return new DbSelectContext(this).select(columnNames);
+    }
+
     public DbSelectContext unordered() {
         return new DbSelectContext(this);
     }
@@ -0,0 +1,99 @@
+package org.fluentjdbc;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Describes an executed statement. The durations are measured with {@link System#nanoTime()}:
+ * Preparing includes binding the parameters, executing is the call to <code>executeQuery</code>,
+ * <code>executeUpdate</code> or <code>executeBatch</code>, and fetching is reading and mapping the result.
+ */
+@ParametersAreNonnullByDefault
+public class QueryEvent {
+
+    private final String sql;
+    @Nullable
+    private final List<Object> parameters;
+    private final int parameterCount;
+    private final int batchSize;
+    private final int rowCount;
+    private final long prepareNanos;
+    private final long executeNanos;
+    private final long fetchNanos;
+    @Nullable
+    private final Throwable error;
+
+    QueryEvent(String sql, @Nullable List<Object> parameters, int parameterCount, int batchSize, int rowCount, long prepareNanos, long executeNanos, long fetchNanos, @Nullable Throwable error) {
+        this.sql = sql;
+        this.parameters = parameters;
+        this.parameterCount = parameterCount;
+        this.batchSize = batchSize;
+        this.rowCount = rowCount;
+        this.prepareNanos = prepareNanos;
+        this.executeNanos = executeNanos;
+        this.fetchNanos = fetchNanos;
+        this.error = error;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * The parameters bound to the statement, or null for batched statements
+     */
+    @Nullable
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * The number of parameters bound for each execution of the statement
+     */
+    public int getParameterCount() {
+        return parameterCount;
+    }
+
+    /**
+     * The number of parameter sets for batched statements, otherwise 1
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * The number of rows read by a query or affected by an update, or -1 if unknown
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public long getTotalNanos() {
+        return prepareNanos + executeNanos + fetchNanos;
+    }
+
+    @Nullable
+    public Throwable getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{sql=\"" + sql + "\", rowCount=" + rowCount + ", totalNanos=" + getTotalNanos()
+                + (error != null ? ", error=" + error : "") + "}";
+    }
+}
@@ -0,0 +1,48 @@
+package org.fluentjdbc;
+
+import javax.annotation.Nullable;
+
+/**
+ * Is notified after each statement that fluent-jdbc executes. Register listeners
+ * with {@link QueryListeners#add(QueryListener)} or as a {@link java.util.ServiceLoader}
+ * service in <code>META-INF/services/org.fluentjdbc.QueryListener</code>.
+ *
+ * <p>Listeners are called on the thread that executed the statement, so they
+ * should return quickly.</p>
+ */
+@FunctionalInterface
+public interface QueryListener {
+
+    void queryExecuted(QueryEvent event);
+
+    /**
+     * Called on the executing thread right before a statement is prepared. Each call is followed
+     * by {@link #queryExecuted(QueryEvent)} for the same statement on the same thread, also when
+     * the statement fails. Statements executed while mapping the result of another statement are
+     * started and executed inside the outer statement.
+     */
+    default void queryStarted(String sql) {
+    }
+
+    /**
+     * Called on the acquiring thread before a {@link DbContextConnection} gets a connection
+     * from its {@link ConnectionSupplier}. Each call is followed by {@link #connectionAcquired}.
+     */
+    default void connectionAcquireStarted() {
+    }
+
+    /**
+     * Called when a {@link DbContextConnection} has acquired a connection from its
+     * {@link ConnectionSupplier}, with the {@link System#nanoTime()} before and after
+     */
+    default void connectionAcquired(long startTime, long endTime, @Nullable Throwable error) {
+    }
+
+    /**
+     * Called when a {@link DbContextConnection} closes its connection, with statistics
+     * about how long the connection was held
+     */
+    default void connectionReleased(ConnectionHoldEvent event) {
+    }
+
+}
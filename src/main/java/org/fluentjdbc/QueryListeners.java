@@ -0,0 +1,112 @@
+package org.fluentjdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * The registered {@link QueryListener}s. Listeners found with {@link ServiceLoader} are
+ * registered when the class is loaded. When no listeners are registered, reporting a
+ * statement doesn't allocate any objects.
+ */
+@ParametersAreNonnullByDefault
+public final class QueryListeners {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryListeners.class);
+
+    private static volatile QueryListener[] listeners = new QueryListener[0];
+
+    static {
+        for (QueryListener listener : ServiceLoader.load(QueryListener.class)) {
+            add(listener);
+        }
+    }
+
+    private QueryListeners() {
+    }
+
+    public static synchronized void add(QueryListener listener) {
+        QueryListener[] result = Arrays.copyOf(listeners, listeners.length + 1);
+        result[listeners.length] = listener;
+        listeners = result;
+    }
+
+    public static synchronized void remove(QueryListener listener) {
+        List<QueryListener> result = new ArrayList<>(Arrays.asList(listeners));
+        result.remove(listener);
+        listeners = result.toArray(new QueryListener[0]);
+    }
+
+    public static boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    static void queryStarted(String sql) {
+        for (QueryListener listener : listeners) {
+            try {
+                listener.queryStarted(sql);
+            } catch (RuntimeException e) {
+                logger.warn("{} failed for start of {}", listener, sql, e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listeners about a statement. The times are values of {@link System#nanoTime()}
+     * when the statement was started, when it was executed, when the result was fetched and when it
+     * was done.
+     */
+    static void queryExecuted(String sql, @Nullable List<Object> parameters, int parameterCount, int batchSize, int rowCount,
+                              long startTime, long executeTime, long fetchTime, long endTime, @Nullable Throwable error) {
+        QueryListener[] listeners = QueryListeners.listeners;
+        if (listeners.length == 0) {
+            return;
+        }
+        QueryEvent event = new QueryEvent(sql, parameters, parameterCount, batchSize, rowCount,
+                executeTime - startTime, fetchTime - executeTime, endTime - fetchTime, error);
+        for (QueryListener listener : listeners) {
+            try {
+                listener.queryExecuted(event);
+            } catch (RuntimeException e) {
+                logger.warn("{} failed for {}", listener, event, e);
+            }
+        }
+    }
+
+    static void connectionAcquireStarted() {
+        for (QueryListener listener : listeners) {
+            try {
+                listener.connectionAcquireStarted();
+            } catch (RuntimeException e) {
+                logger.warn("{} failed for start of connection acquisition", listener, e);
+            }
+        }
+    }
+
+    static void connectionAcquired(long startTime, long endTime, @Nullable Throwable error) {
+        for (QueryListener listener : listeners) {
+            try {
+                listener.connectionAcquired(startTime, endTime, error);
+            } catch (RuntimeException e) {
+                logger.warn("{} failed for connection acquisition", listener, e);
+            }
+        }
+    }
+
+    static void connectionReleased(ConnectionHoldEvent event) {
+        for (QueryListener listener : listeners) {
+            try {
+                listener.connectionReleased(event);
+            } catch (RuntimeException e) {
+                logger.warn("{} failed for {}", listener, event, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.fluentjdbc.dialect;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.temporal.Temporal;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * The SQL syntax and parameter binding that differ between database engines. The default
+ * methods follow the SQL standard. The dialect for a connection is found with
+ * {@link DatabaseDialects#detect(java.sql.Connection)}, based on
+ * {@link java.sql.DatabaseMetaData#getDatabaseProductName()}.
+ *
+ * <p>Dialects for other databases can be registered with {@link DatabaseDialects#register(DatabaseDialect)}
+ * or listed in <code>META-INF/services/org.fluentjdbc.dialect.DatabaseDialect</code>.</p>
+ */
+@ParametersAreNonnullByDefault
+public interface DatabaseDialect {
+
+    /**
+     * The name returned by {@link java.sql.DatabaseMetaData#getDatabaseProductName()}
+     * for databases that use this dialect
+     */
+    String getProductName();
+
+    /**
+     * Creates a <code>select</code> statement which returns at most <code>limit</code> rows
+     */
+    default String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select " + columns + fromAndWhereClause + " fetch first " + limit + " rows only";
+    }
+
+    /**
+     * Binds a statement parameter the way fluent-jdbc does for all statements: java.time values
+     * and UUIDs with {@link #bindTimestamp} and {@link #bindUuid}, strings and enums as strings
+     * and other values with {@link PreparedStatement#setObject(int, Object)}
+     */
+    default void bindParameter(PreparedStatement stmt, int index, @Nullable Object parameter) throws SQLException {
+        if (parameter instanceof Instant) {
+            bindTimestamp(stmt, index, (Instant)parameter);
+        } else if (parameter instanceof ZonedDateTime) {
+            bindTimestamp(stmt, index, Instant.from((ZonedDateTime)parameter));
+        } else if (parameter instanceof LocalDate) {
+            stmt.setDate(index, Date.valueOf((LocalDate)parameter));
+        } else if (parameter instanceof UUID) {
+            bindUuid(stmt, index, (UUID)parameter);
+        } else if (parameter instanceof Temporal) {
+            stmt.setObject(index, parameter.toString());
+        } else if (parameter instanceof CharSequence) {
+            stmt.setString(index, parameter.toString());
+        } else if (parameter instanceof Enum<?>) {
+            stmt.setString(index, parameter.toString());
+        } else if (parameter instanceof Array) {
+            stmt.setArray(index, (Array) parameter);
+        } else {
+            stmt.setObject(index, parameter);
+        }
+    }
+
+    default void bindTimestamp(PreparedStatement stmt, int index, Instant value) throws SQLException {
+        stmt.setTimestamp(index, Timestamp.from(value));
+    }
+
+    default void bindUuid(PreparedStatement stmt, int index, UUID value) throws SQLException {
+        stmt.setObject(index, value);
+    }
+
+    /**
+     * The type name to pass to {@link java.sql.Connection#createArrayOf(String, Object[])}
+     * for an array of <code>elementType</code>, or null if this database can't bind such
+     * arrays as parameters
+     */
+    @Nullable
+    default String getArrayTypeName(Class<?> elementType) {
+        return null;
+    }
+
+    /**
+     * The condition which replaces <code>in (?)</code> when the values are bound as a single
+     * array parameter, e.g. <code>= any(?)</code>, or null if arrays should not be used for
+     * <code>in</code> conditions
+     */
+    @Nullable
+    default String getArrayInExpression() {
+        return null;
+    }
+
+    /**
+     * The largest number of parameters that can be bound in one statement
+     */
+    default int getMaxParameters() {
+        return 1000;
+    }
+
+    /**
+     * An SQL expression which calculates an integer hash from a string, with <code>%s</code>
+     * where the string expression should be inserted, or null if none is known
+     */
+    @Nullable
+    default String getRowHashExpression() {
+        return null;
+    }
+
+    /**
+     * What to put before a query to see its execution plan, or null if not supported
+     */
+    @Nullable
+    default String getExplainPrefix() {
+        return null;
+    }
+
+    /**
+     * False if the database explains a query without binding its parameters
+     */
+    default boolean isExplainWithParameters() {
+        return true;
+    }
+
+    /**
+     * False if the driver doesn't report the table of each column with
+     * {@link java.sql.ResultSetMetaData#getTableName(int)}, which
+     * {@link org.fluentjdbc.DatabaseResult#table(String)} needs
+     */
+    default boolean supportsResultSetTableNames() {
+        return true;
+    }
+}
@@ -0,0 +1,68 @@
+package org.fluentjdbc.dialect;
+
+import org.fluentjdbc.util.ExceptionUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Finds the {@link DatabaseDialect} for a database by its product name. Databases without a
+ * registered dialect get one which uses standard SQL.
+ */
+@ParametersAreNonnullByDefault
+public class DatabaseDialects {
+
+    private static final Map<String, DatabaseDialect> dialects = new ConcurrentHashMap<>();
+    private static final Map<Connection, DatabaseDialect> connectionDialects = Collections.synchronizedMap(new WeakHashMap<>());
+    static {
+        register(new H2Dialect());
+        register(new HsqldbDialect());
+        register(new PostgresDialect());
+        register(new SqliteDialect());
+        register(new MySqlDialect("MySQL"));
+        register(new MySqlDialect("MariaDB"));
+        register(new SqlServerDialect());
+        for (DatabaseDialect dialect : ServiceLoader.load(DatabaseDialect.class)) {
+            register(dialect);
+        }
+    }
+
+    private DatabaseDialects() {
+    }
+
+    /**
+     * Use <code>dialect</code> for all databases with the same product name, replacing any existing dialect
+     */
+    public static void register(DatabaseDialect dialect) {
+        dialects.put(dialect.getProductName(), dialect);
+    }
+
+    public static DatabaseDialect forProductName(String productName) {
+        return dialects.computeIfAbsent(productName, DefaultDialect::new);
+    }
+
+    /**
+     * Looks up the dialect from the connection's {@link java.sql.DatabaseMetaData} the first time
+     * it is called for a connection and caches it for as long as the connection is in use.
+     * {@link org.fluentjdbc.DbContext} only does this once per connection supplier.
+     */
+    public static DatabaseDialect detect(Connection connection) {
+        DatabaseDialect dialect = connectionDialects.get(connection);
+        if (dialect == null) {
+            try {
+                dialect = forProductName(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                throw ExceptionUtil.softenCheckedException(e);
+            }
+            connectionDialects.put(connection, dialect);
+        }
+        return dialect;
+    }
+}
@@ -0,0 +1,23 @@
+package org.fluentjdbc.dialect;
+
+/**
+ * Used for databases without a registered dialect
+ */
+class DefaultDialect implements DatabaseDialect {
+
+    private final String productName;
+
+    DefaultDialect(String productName) {
+        this.productName = productName;
+    }
+
+    @Override
+    public String getProductName() {
+        return productName;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + productName + "}";
+    }
+}
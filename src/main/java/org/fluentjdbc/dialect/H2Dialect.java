@@ -0,0 +1,42 @@
+package org.fluentjdbc.dialect;
+
+import javax.annotation.Nullable;
+
+public class H2Dialect implements DatabaseDialect {
+
+    @Override
+    public String getProductName() {
+        return "H2";
+    }
+
+    @Override
+    public String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select " + columns + fromAndWhereClause + " limit " + limit;
+    }
+
+    @Nullable
+    @Override
+    public String getArrayTypeName(Class<?> elementType) {
+        return PostgresDialect.ARRAY_TYPE_NAMES.get(elementType);
+    }
+
+    @Override
+    public String getArrayInExpression() {
+        return "= any(?)";
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
+    @Override
+    public String getRowHashExpression() {
+        return "ora_hash(%s)";
+    }
+
+    @Override
+    public String getExplainPrefix() {
+        return "explain ";
+    }
+}
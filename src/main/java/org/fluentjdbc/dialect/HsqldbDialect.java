@@ -0,0 +1,29 @@
+package org.fluentjdbc.dialect;
+
+public class HsqldbDialect implements DatabaseDialect {
+
+    @Override
+    public String getProductName() {
+        return "HSQL Database Engine";
+    }
+
+    @Override
+    public String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select " + columns + fromAndWhereClause + " limit " + limit;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
+    @Override
+    public String getExplainPrefix() {
+        return "explain plan for ";
+    }
+
+    @Override
+    public boolean isExplainWithParameters() {
+        return false;
+    }
+}
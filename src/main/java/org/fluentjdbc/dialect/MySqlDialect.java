@@ -0,0 +1,33 @@
+package org.fluentjdbc.dialect;
+
+/**
+ * Used for both MySQL and MariaDB
+ */
+public class MySqlDialect implements DatabaseDialect {
+
+    private final String productName;
+
+    public MySqlDialect(String productName) {
+        this.productName = productName;
+    }
+
+    @Override
+    public String getProductName() {
+        return productName;
+    }
+
+    @Override
+    public String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select " + columns + fromAndWhereClause + " limit " + limit;
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 65535;
+    }
+
+    @Override
+    public String getExplainPrefix() {
+        return "explain ";
+    }
+}
@@ -0,0 +1,57 @@
+package org.fluentjdbc.dialect;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+public class PostgresDialect implements DatabaseDialect {
+
+    static final Map<Class<?>, String> ARRAY_TYPE_NAMES = new HashMap<>();
+    static {
+        ARRAY_TYPE_NAMES.put(Short.class, "smallint");
+        ARRAY_TYPE_NAMES.put(Integer.class, "integer");
+        ARRAY_TYPE_NAMES.put(Long.class, "bigint");
+        ARRAY_TYPE_NAMES.put(BigDecimal.class, "numeric");
+        ARRAY_TYPE_NAMES.put(String.class, "varchar");
+        ARRAY_TYPE_NAMES.put(UUID.class, "uuid");
+    }
+
+    @Override
+    public String getProductName() {
+        return "PostgreSQL";
+    }
+
+    @Override
+    public String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select " + columns + fromAndWhereClause + " limit " + limit;
+    }
+
+    @Nullable
+    @Override
+    public String getArrayTypeName(Class<?> elementType) {
+        return ARRAY_TYPE_NAMES.get(elementType);
+    }
+
+    @Override
+    public String getArrayInExpression() {
+        return "= any(?)";
+    }
+
+    @Override
+    public int getMaxParameters() {
+        return 32767;
+    }
+
+    @Override
+    public String getRowHashExpression() {
+        return "('x' || substr(md5(%s), 1, 8))::bit(32)::bigint";
+    }
+
+    @Override
+    public String getExplainPrefix() {
+        return "explain ";
+    }
+}
@@ -0,0 +1,47 @@
+package org.fluentjdbc.dialect;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.UUID;
+
+public class SqlServerDialect implements DatabaseDialect {
+
+    @Override
+    public String getProductName() {
+        return "Microsoft SQL Server";
+    }
+
+    @Override
+    public String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select top " + limit + " " + columns + fromAndWhereClause;
+    }
+
+    /**
+     * Neither jTDS nor the Microsoft driver support binding {@link UUID} objects
+     */
+    @Override
+    public void bindUuid(PreparedStatement stmt, int index, UUID value) throws SQLException {
+        stmt.setString(index, value.toString());
+    }
+
+    /**
+     * SQL Server allows 2100 parameters, but leave room for parameters outside of <code>in</code> lists
+     */
+    @Override
+    public int getMaxParameters() {
+        return 2000;
+    }
+
+    @Override
+    public String getRowHashExpression() {
+        return "cast(binary_checksum(%s) as bigint)";
+    }
+
+    /**
+     * The Microsoft driver returns an empty string from <code>ResultSetMetaData.getTableName</code>
+     */
+    @Override
+    public boolean supportsResultSetTableNames() {
+        return false;
+    }
+}
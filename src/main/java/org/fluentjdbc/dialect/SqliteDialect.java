@@ -0,0 +1,27 @@
+package org.fluentjdbc.dialect;
+
+public class SqliteDialect implements DatabaseDialect {
+
+    @Override
+    public String getProductName() {
+        return "SQLite";
+    }
+
+    @Override
+    public String createSelectSql(String columns, String fromAndWhereClause, int limit) {
+        return "select " + columns + fromAndWhereClause + " limit " + limit;
+    }
+
+    /**
+     * The default limit before SQLite 3.32
+     */
+    @Override
+    public int getMaxParameters() {
+        return 999;
+    }
+
+    @Override
+    public String getExplainPrefix() {
+        return "explain query plan ";
+    }
+}
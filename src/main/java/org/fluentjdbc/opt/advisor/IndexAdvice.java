@@ -0,0 +1,72 @@
+package org.fluentjdbc.opt.advisor;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A finding from {@link IndexAdvisor}: Either queries which filter or sort on columns without
+ * a supporting index, or an index which no recorded query could use.
+ */
+@ParametersAreNonnullByDefault
+public class IndexAdvice {
+
+    public enum Type {
+        MISSING_INDEX, UNUSED_INDEX
+    }
+
+    private final Type type;
+    private final String tableName;
+    private final List<String> columns;
+    @Nullable
+    private final String indexName;
+    private final Map<String, Long> queries;
+
+    IndexAdvice(Type type, String tableName, List<String> columns, @Nullable String indexName, Map<String, Long> queries) {
+        this.type = type;
+        this.tableName = tableName;
+        this.columns = columns;
+        this.indexName = indexName;
+        this.queries = queries;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * For missing indexes, the filtered columns followed by the sorted columns.
+     * For unused indexes, the columns of the index.
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * The name of the unused index
+     */
+    @Nullable
+    public String getIndexName() {
+        return indexName;
+    }
+
+    /**
+     * The fingerprints of the queries without a supporting index and how many times each was executed
+     */
+    public Map<String, Long> getQueries() {
+        return queries;
+    }
+
+    @Override
+    public String toString() {
+        if (type == Type.UNUSED_INDEX) {
+            return "Unused index " + indexName + " on " + tableName + columns;
+        }
+        return "Missing index on " + tableName + columns + " for " + queries;
+    }
+}
@@ -0,0 +1,225 @@
+package org.fluentjdbc.opt.advisor;
+
+import org.fluentjdbc.QueryEvent;
+import org.fluentjdbc.QueryListener;
+import org.fluentjdbc.QueryListeners;
+import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.util.SqlFingerprint;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the columns that queries filter and sort on for each table and compares them with
+ * the indexes reported by {@link DatabaseMetaData#getIndexInfo}. Meant for development and
+ * tests, e.g. by installing the advisor while the test suite runs against H2 or HSQLDB and
+ * calling {@link #assertNoMissingIndexes(Connection)} at the end.
+ *
+ * <p>The columns are read from the statements generated by {@link org.fluentjdbc.DatabaseTableQueryBuilder},
+ * {@link org.fluentjdbc.DatabaseUpdateBuilder} and {@link org.fluentjdbc.DatabaseDeleteBuilder}. Each
+ * <code>where</code> condition that starts with a column name counts as a filter on that column.
+ * Joins and other hand written SQL are ignored. A query is considered supported if the first
+ * column of an index is one of its filtered columns, or, for queries without filters, its first sorted column.</p>
+ */
+@ParametersAreNonnullByDefault
+public class IndexAdvisor implements QueryListener {
+
+    private static final Pattern SELECT = Pattern.compile(
+            "(?is)^select (?:top \\d+ )?.*? from ([\\w.]+)(?: where (.*?))?(?: group by .*?)?(?: order by (.*?))?(?: limit \\d+| fetch first \\d+ rows only)?");
+    private static final Pattern UPDATE = Pattern.compile("(?is)^update ([\\w.]+) set .*? where (.*)");
+    private static final Pattern DELETE = Pattern.compile("(?is)^delete from ([\\w.]+) where (.*)");
+    private static final Pattern AND = Pattern.compile("(?i)\\s+and\\s+");
+    private static final Pattern CONDITION_COLUMN = Pattern.compile(
+            "(?i)^\\(?\\s*([a-z_][\\w]*)\\s*(?:=|<>|!=|<=|>=|<|>|\\s+in\\b|\\s+like\\b|\\s+is\\b|\\s+between\\b)");
+    private static final Pattern SORT_COLUMN = Pattern.compile("(?i)^\\s*([a-z_][\\w]*)(?:\\s+(?:asc|desc))?\\s*$");
+
+    static class QueryShape {
+        @Nullable
+        final String tableName;
+        final List<String> filterColumns;
+        final List<String> sortColumns;
+        final LongAdder count = new LongAdder();
+
+        QueryShape(@Nullable String tableName, List<String> filterColumns, List<String> sortColumns) {
+            this.tableName = tableName;
+            this.filterColumns = filterColumns;
+            this.sortColumns = sortColumns;
+        }
+
+        boolean isSupportedBy(String firstIndexColumn) {
+            return filterColumns.isEmpty()
+                    ? !sortColumns.isEmpty() && sortColumns.get(0).equals(firstIndexColumn)
+                    : filterColumns.contains(firstIndexColumn);
+        }
+    }
+
+    private static class Index {
+        private final String name;
+        private final boolean unique;
+        private final List<String> columns = new ArrayList<>();
+
+        Index(String name, boolean unique) {
+            this.name = name;
+            this.unique = unique;
+        }
+    }
+
+    private final Map<String, QueryShape> shapes = new ConcurrentHashMap<>();
+
+    public IndexAdvisor install() {
+        QueryListeners.add(this);
+        return this;
+    }
+
+    public void uninstall() {
+        QueryListeners.remove(this);
+    }
+
+    public void reset() {
+        shapes.clear();
+    }
+
+    @Override
+    public void queryExecuted(QueryEvent event) {
+        shapes.computeIfAbsent(SqlFingerprint.of(event.getSql()), fingerprint -> parse(event.getSql()))
+                .count.increment();
+    }
+
+    static QueryShape parse(String sql) {
+        String normalized = sql.trim().replaceAll("\\s+", " ");
+        Matcher matcher;
+        if ((matcher = SELECT.matcher(normalized)).matches()) {
+            return new QueryShape(matcher.group(1).toLowerCase(), conditionColumns(matcher.group(2)), sortColumns(matcher.group(3)));
+        } else if ((matcher = UPDATE.matcher(normalized)).matches() || (matcher = DELETE.matcher(normalized)).matches()) {
+            return new QueryShape(matcher.group(1).toLowerCase(), conditionColumns(matcher.group(2)), new ArrayList<>());
+        }
+        return new QueryShape(null, new ArrayList<>(), new ArrayList<>());
+    }
+
+    private static List<String> conditionColumns(@Nullable String whereClause) {
+        Set<String> result = new LinkedHashSet<>();
+        if (whereClause != null) {
+            for (String condition : AND.split(whereClause)) {
+                Matcher matcher = CONDITION_COLUMN.matcher(condition);
+                if (matcher.find()) {
+                    result.add(matcher.group(1).toLowerCase());
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static List<String> sortColumns(@Nullable String orderByClause) {
+        List<String> result = new ArrayList<>();
+        if (orderByClause != null) {
+            for (String clause : orderByClause.split(",")) {
+                Matcher matcher = SORT_COLUMN.matcher(clause);
+                if (!matcher.matches()) {
+                    break;
+                }
+                result.add(matcher.group(1).toLowerCase());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compares the recorded queries with the indexes of each table they used
+     */
+    public List<IndexAdvice> analyze(Connection connection) {
+        Map<String, Map<String, QueryShape>> shapesByTable = new TreeMap<>();
+        for (Map.Entry<String, QueryShape> entry : shapes.entrySet()) {
+            QueryShape shape = entry.getValue();
+            if (shape.tableName != null && (!shape.filterColumns.isEmpty() || !shape.sortColumns.isEmpty())) {
+                shapesByTable.computeIfAbsent(shape.tableName, t -> new TreeMap<>()).put(entry.getKey(), shape);
+            }
+        }
+
+        List<IndexAdvice> result = new ArrayList<>();
+        try {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (Map.Entry<String, Map<String, QueryShape>> tableEntry : shapesByTable.entrySet()) {
+                String tableName = tableEntry.getKey();
+                List<Index> indexes = getIndexes(metaData, tableName);
+
+                Map<List<String>, Map<String, Long>> missing = new LinkedHashMap<>();
+                for (Map.Entry<String, QueryShape> entry : tableEntry.getValue().entrySet()) {
+                    QueryShape shape = entry.getValue();
+                    if (indexes.stream().noneMatch(index -> shape.isSupportedBy(index.columns.get(0)))) {
+                        Set<String> columns = new LinkedHashSet<>(shape.filterColumns);
+                        columns.addAll(shape.sortColumns);
+                        missing.computeIfAbsent(new ArrayList<>(columns), c -> new TreeMap<>()).put(entry.getKey(), shape.count.sum());
+                    }
+                }
+                for (Map.Entry<List<String>, Map<String, Long>> entry : missing.entrySet()) {
+                    result.add(new IndexAdvice(IndexAdvice.Type.MISSING_INDEX, tableName, entry.getKey(), null, entry.getValue()));
+                }
+
+                for (Index index : indexes) {
+                    // Unique indexes enforce constraints even if no query uses them
+                    if (!index.unique && tableEntry.getValue().values().stream().noneMatch(shape -> shape.isSupportedBy(index.columns.get(0)))) {
+                        result.add(new IndexAdvice(IndexAdvice.Type.UNUSED_INDEX, tableName, index.columns, index.name, new TreeMap<>()));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Throws {@link AssertionError} listing the queries without a supporting index, if any
+     */
+    public void assertNoMissingIndexes(Connection connection) {
+        List<IndexAdvice> missing = analyze(connection).stream()
+                .filter(advice -> advice.getType() == IndexAdvice.Type.MISSING_INDEX)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new AssertionError("Queries without supporting index: " + missing);
+        }
+    }
+
+    private static List<Index> getIndexes(DatabaseMetaData metaData, String tableName) throws SQLException {
+        Map<String, Index> indexes = new LinkedHashMap<>();
+        for (String candidate : Arrays.asList(tableName, tableName.toUpperCase(), tableName.toLowerCase())) {
+            try (ResultSet rs = metaData.getIndexInfo(null, null, candidate, false, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String columnName = rs.getString("COLUMN_NAME");
+                    if (indexName == null || columnName == null) {
+                        continue;
+                    }
+                    indexes.computeIfAbsent(indexName, name -> {
+                        try {
+                            return new Index(name, !rs.getBoolean("NON_UNIQUE"));
+                        } catch (SQLException e) {
+                            throw ExceptionUtil.softenCheckedException(e);
+                        }
+                    }).columns.add(columnName.toLowerCase());
+                }
+            }
+            if (!indexes.isEmpty()) {
+                break;
+            }
+        }
+        return new ArrayList<>(indexes.values());
+    }
+}
@@ -0,0 +1,143 @@
+package org.fluentjdbc.opt.jfr;
+
+import jdk.jfr.EventType;
+import org.fluentjdbc.QueryEvent;
+import org.fluentjdbc.QueryListener;
+import org.fluentjdbc.QueryListeners;
+import org.fluentjdbc.util.SqlFingerprint;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Emits JDK Flight Recorder events for fluent-jdbc: <code>fluentjdbc.Query</code> for each
+ * statement, <code>fluentjdbc.BulkInsert</code> for batched inserts and
+ * <code>fluentjdbc.ConnectionAcquire</code> when a {@link org.fluentjdbc.DbContextConnection}
+ * gets its connection. Events are only created when they are enabled in a running recording.
+ *
+ * <p>The listener requires a JVM with the <code>jdk.jfr</code> API (Java 11 or Java 8u262 and later),
+ * which is why it must be installed explicitly with {@link #install()} or registered in
+ * <code>META-INF/services/org.fluentjdbc.QueryListener</code>.</p>
+ *
+ * <p>Events begin when the statement or connection acquisition starts and are committed when it
+ * is done, so they cover the statement on the JFR timeline and can be lined up with GC pauses and
+ * thread events. The durations of each phase are recorded in the event fields.</p>
+ */
+@ParametersAreNonnullByDefault
+public class FlightRecorderListener implements QueryListener {
+
+    private static final Pattern INSERT_TABLE = Pattern.compile("(?i)^\\s*insert\\s+into\\s+([^\\s(]+)");
+
+    private static final EventType QUERY = EventType.getEventType(JfrQueryEvent.class);
+    private static final EventType BULK_INSERT = EventType.getEventType(JfrBulkInsertEvent.class);
+    private static final EventType CONNECTION_ACQUIRE = EventType.getEventType(JfrConnectionAcquireEvent.class);
+
+    /**
+     * The events for a statement which has started but not finished
+     */
+    private static class StartedQuery {
+        @Nullable
+        final JfrQueryEvent query;
+        @Nullable
+        final JfrBulkInsertEvent bulkInsert;
+
+        StartedQuery(@Nullable JfrQueryEvent query, @Nullable JfrBulkInsertEvent bulkInsert) {
+            this.query = query;
+            this.bulkInsert = bulkInsert;
+        }
+    }
+
+    private static final StartedQuery DISABLED = new StartedQuery(null, null);
+
+    // Statements can be nested when a row mapper executes queries
+    private final ThreadLocal<Deque<StartedQuery>> startedQueries = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<JfrConnectionAcquireEvent> startedAcquire = new ThreadLocal<>();
+
+    public static FlightRecorderListener install() {
+        FlightRecorderListener listener = new FlightRecorderListener();
+        QueryListeners.add(listener);
+        return listener;
+    }
+
+    public void uninstall() {
+        QueryListeners.remove(this);
+    }
+
+    @Override
+    public void queryStarted(String sql) {
+        JfrQueryEvent query = null;
+        if (QUERY.isEnabled()) {
+            query = new JfrQueryEvent();
+            query.begin();
+        }
+        JfrBulkInsertEvent bulkInsert = null;
+        if (BULK_INSERT.isEnabled()) {
+            Matcher matcher = INSERT_TABLE.matcher(sql);
+            if (matcher.find()) {
+                bulkInsert = new JfrBulkInsertEvent();
+                bulkInsert.table = matcher.group(1);
+                bulkInsert.begin();
+            }
+        }
+        startedQueries.get().push(query != null || bulkInsert != null ? new StartedQuery(query, bulkInsert) : DISABLED);
+    }
+
+    @Override
+    public void queryExecuted(QueryEvent event) {
+        StartedQuery started = startedQueries.get().poll();
+        if (started == null) {
+            // The listener was installed while the statement was running
+            return;
+        }
+        if (started.query != null) {
+            JfrQueryEvent jfrEvent = started.query;
+            jfrEvent.fingerprint = SqlFingerprint.of(event.getSql());
+            jfrEvent.sql = event.getSql();
+            jfrEvent.rows = event.getRowCount();
+            jfrEvent.batchSize = event.getBatchSize();
+            jfrEvent.prepareTime = event.getPrepareNanos();
+            jfrEvent.executeTime = event.getExecuteNanos();
+            jfrEvent.mapTime = event.getFetchNanos();
+            jfrEvent.totalTime = event.getTotalNanos();
+            jfrEvent.error = toString(event.getError());
+            jfrEvent.commit();
+        }
+        if (started.bulkInsert != null && event.getBatchSize() > 1) {
+            JfrBulkInsertEvent jfrEvent = started.bulkInsert;
+            jfrEvent.batchSize = event.getBatchSize();
+            jfrEvent.rows = event.getRowCount();
+            jfrEvent.totalTime = event.getTotalNanos();
+            jfrEvent.commit();
+        }
+    }
+
+    @Override
+    public void connectionAcquireStarted() {
+        if (CONNECTION_ACQUIRE.isEnabled()) {
+            JfrConnectionAcquireEvent jfrEvent = new JfrConnectionAcquireEvent();
+            jfrEvent.begin();
+            startedAcquire.set(jfrEvent);
+        }
+    }
+
+    @Override
+    public void connectionAcquired(long startTime, long endTime, @Nullable Throwable error) {
+        JfrConnectionAcquireEvent jfrEvent = startedAcquire.get();
+        if (jfrEvent != null) {
+            startedAcquire.remove();
+            jfrEvent.acquireTime = endTime - startTime;
+            jfrEvent.error = toString(error);
+            jfrEvent.commit();
+        }
+    }
+
+    @Nullable
+    private static String toString(@Nullable Throwable error) {
+        return error != null ? error.toString() : null;
+    }
+}
@@ -0,0 +1,28 @@
+package org.fluentjdbc.opt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("fluentjdbc.BulkInsert")
+@Label("Bulk Insert")
+@Category("fluent-jdbc")
+@Description("A batched insert executed by fluent-jdbc")
+class JfrBulkInsertEvent extends Event {
+
+    @Label("Table")
+    String table;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Rows")
+    int rows;
+
+    @Label("Total Time")
+    @Timespan
+    long totalTime;
+}
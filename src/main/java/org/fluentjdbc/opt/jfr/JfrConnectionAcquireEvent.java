@@ -0,0 +1,22 @@
+package org.fluentjdbc.opt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("fluentjdbc.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category("fluent-jdbc")
+@Description("Time spent waiting for a connection in DbContextConnection")
+class JfrConnectionAcquireEvent extends Event {
+
+    @Label("Acquire Time")
+    @Timespan
+    long acquireTime;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,49 @@
+package org.fluentjdbc.opt.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("fluentjdbc.Query")
+@Label("Query")
+@Category("fluent-jdbc")
+@Description("A statement executed by fluent-jdbc")
+class JfrQueryEvent extends Event {
+
+    @Label("Fingerprint")
+    @Description("The SQL with literals and IN lists collapsed")
+    String fingerprint;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    @Description("Rows read or affected, or -1 if unknown")
+    int rows;
+
+    @Label("Batch Size")
+    int batchSize;
+
+    @Label("Prepare Time")
+    @Timespan
+    long prepareTime;
+
+    @Label("Execute Time")
+    @Timespan
+    long executeTime;
+
+    @Label("Map Time")
+    @Description("Time spent reading and mapping the result")
+    @Timespan
+    long mapTime;
+
+    @Label("Total Time")
+    @Timespan
+    long totalTime;
+
+    @Label("Error")
+    String error;
+}
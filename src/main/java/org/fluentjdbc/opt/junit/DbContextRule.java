@@ -7,23 +7,61 @@ import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
 import javax.sql.DataSource;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public class DbContextRule extends DbContext implements TestRule {
     private final DataSource dataSource;
+    private int maxQueries = -1;
+    private int maxQueriesPerShape = -1;
 
     public DbContextRule(DataSource dataSource) {
         this.dataSource = dataSource;
     }
 
+    /**
+     * Fails the test if it executes more than this many statements
+     */
+    public DbContextRule queryBudget(int maxQueries) {
+        this.maxQueries = maxQueries;
+        countQueries(true);
+        return this;
+    }
+
+    /**
+     * Fails the test if it executes the same query shape more than this many times
+     */
+    public DbContextRule queryBudgetPerShape(int maxQueriesPerShape) {
+        this.maxQueriesPerShape = maxQueriesPerShape;
+        countQueries(true);
+        return this;
+    }
+
     @Override
     public Statement apply(Statement statement, Description description) {
         return new Statement() {
             @Override
             public void evaluate() throws Throwable {
-                try (DbContextConnection ignored = startConnection(dataSource)) {
+                try (DbContextConnection connection = startConnection(dataSource)) {
                     statement.evaluate();
+                    verifyQueryBudget(connection.getQueryCounts());
                 }
             }
         };
     }
+
+    private void verifyQueryBudget(Map<String, Integer> queryCounts) {
+        int total = queryCounts.values().stream().mapToInt(Integer::intValue).sum();
+        if (maxQueries >= 0 && total > maxQueries) {
+            throw new AssertionError("Expected at most " + maxQueries + " queries, but " + total + " were executed: " + queryCounts);
+        }
+        if (maxQueriesPerShape >= 0) {
+            Map<String, Integer> exceeded = queryCounts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > maxQueriesPerShape)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            if (!exceeded.isEmpty()) {
+                throw new AssertionError("Expected each query to be executed at most " + maxQueriesPerShape + " times, but was " + exceeded);
+            }
+        }
+    }
 }
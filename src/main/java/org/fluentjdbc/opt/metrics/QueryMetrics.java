@@ -0,0 +1,115 @@
+package org.fluentjdbc.opt.metrics;
+
+import org.fluentjdbc.QueryEvent;
+import org.fluentjdbc.QueryListener;
+import org.fluentjdbc.QueryListeners;
+import org.fluentjdbc.util.ExceptionUtil;
+import org.fluentjdbc.util.SqlFingerprint;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records latency histograms, row counts and error counts per {@link SqlFingerprint query shape}.
+ * Metrics are not recorded until {@link #install()} is called.
+ *
+ * <pre>
+ * QueryMetrics metrics = new QueryMetrics().install();
+ * metrics.registerMBean("org.fluentjdbc:type=QueryMetrics");
+ * ...
+ * metrics.getStatistics().forEach(s -&gt; logger.info("{}", s));
+ * </pre>
+ */
+@ParametersAreNonnullByDefault
+public class QueryMetrics implements QueryListener, QueryMetricsMXBean {
+
+    private static class ShapeMetrics {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, ShapeMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Starts recording metrics for all statements
+     */
+    public QueryMetrics install() {
+        QueryListeners.add(this);
+        return this;
+    }
+
+    public void uninstall() {
+        QueryListeners.remove(this);
+    }
+
+    public void registerMBean(String objectName) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(objectName));
+        } catch (JMException e) {
+            throw ExceptionUtil.softenCheckedException(e);
+        }
+    }
+
+    @Override
+    public void queryExecuted(QueryEvent event) {
+        ShapeMetrics shape = metrics.computeIfAbsent(SqlFingerprint.of(event.getSql()), key -> new ShapeMetrics());
+        shape.latency.record(event.getTotalNanos());
+        if (event.getRowCount() > 0) {
+            shape.rows.add(event.getRowCount());
+        }
+        if (event.getError() != null) {
+            shape.errors.increment();
+        }
+    }
+
+    /**
+     * Returns the statistics of each query shape, with the most time consuming first
+     */
+    public List<QueryStatistics> getStatistics() {
+        List<QueryStatistics> result = new ArrayList<>();
+        for (Map.Entry<String, ShapeMetrics> entry : metrics.entrySet()) {
+            LatencyHistogram.Snapshot latency = entry.getValue().latency.snapshot();
+            result.add(new QueryStatistics(entry.getKey(), latency.getCount(), entry.getValue().errors.sum(), entry.getValue().rows.sum(),
+                    latency.getMeanNanos() / 1000, latency.getPercentileNanos(50) / 1000,
+                    latency.getPercentileNanos(99) / 1000, latency.getMaxNanos() / 1000));
+        }
+        result.sort(Comparator.comparingLong((QueryStatistics s) -> s.getMeanMicros() * s.getCount()).reversed());
+        return result;
+    }
+
+    public LatencyHistogram.Snapshot getLatency(String fingerprint) {
+        ShapeMetrics shape = metrics.get(fingerprint);
+        return shape != null ? shape.latency.snapshot() : new LatencyHistogram().snapshot();
+    }
+
+    @Override
+    public List<QueryStatistics> getQueries() {
+        return getStatistics();
+    }
+
+    @Override
+    public long getTotalCount() {
+        return metrics.values().stream().mapToLong(m -> m.latency.snapshot().getCount()).sum();
+    }
+
+    @Override
+    public long getTotalErrors() {
+        return metrics.values().stream().mapToLong(m -> m.errors.sum()).sum();
+    }
+
+    @Override
+    public void reset() {
+        metrics.clear();
+    }
+}
@@ -0,0 +1,14 @@
+package org.fluentjdbc.opt.metrics;
+
+import java.util.List;
+
+public interface QueryMetricsMXBean {
+
+    List<QueryStatistics> getQueries();
+
+    long getTotalCount();
+
+    long getTotalErrors();
+
+    void reset();
+}
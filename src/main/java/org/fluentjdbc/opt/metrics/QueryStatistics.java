@@ -0,0 +1,71 @@
+package org.fluentjdbc.opt.metrics;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The counters of one query shape at one point in time. Durations are in microseconds.
+ */
+public class QueryStatistics {
+
+    private final String fingerprint;
+    private final long count;
+    private final long errors;
+    private final long rows;
+    private final long meanMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long maxMicros;
+
+    @ConstructorProperties({"fingerprint", "count", "errors", "rows", "meanMicros", "p50Micros", "p99Micros", "maxMicros"})
+    public QueryStatistics(String fingerprint, long count, long errors, long rows, long meanMicros, long p50Micros, long p99Micros, long maxMicros) {
+        this.fingerprint = fingerprint;
+        this.count = count;
+        this.errors = errors;
+        this.rows = rows;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * The total number of rows read or affected
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" + fingerprint + ": count=" + count + ", errors=" + errors + ", rows=" + rows
+                + ", p50=" + p50Micros + "µs, p99=" + p99Micros + "µs, max=" + maxMicros + "µs}";
+    }
+}
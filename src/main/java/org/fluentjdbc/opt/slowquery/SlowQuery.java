@@ -0,0 +1,165 @@
+package org.fluentjdbc.opt.slowquery;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement recorded by {@link SlowQueryLog}. The plan is filled in asynchronously
+ * after the entry is recorded.
+ */
+@ParametersAreNonnullByDefault
+public class SlowQuery {
+
+    private final Instant time;
+    private final String sql;
+    private final List<String> parameterTypes;
+    @Nullable
+    private final List<String> parameterValues;
+    private final int rowCount;
+    private final long prepareNanos;
+    private final long executeNanos;
+    private final long fetchNanos;
+    @Nullable
+    private final String error;
+    @Nullable
+    private volatile String plan;
+
+    SlowQuery(Instant time, String sql, List<String> parameterTypes, @Nullable List<String> parameterValues,
+              int rowCount, long prepareNanos, long executeNanos, long fetchNanos, @Nullable String error) {
+        this.time = time;
+        this.sql = sql;
+        this.parameterTypes = parameterTypes;
+        this.parameterValues = parameterValues;
+        this.rowCount = rowCount;
+        this.prepareNanos = prepareNanos;
+        this.executeNanos = executeNanos;
+        this.fetchNanos = fetchNanos;
+        this.error = error;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * The class names of the bound parameters, with <code>null</code> for null parameters
+     */
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * The bound parameter values as strings, or null if values are redacted
+     */
+    @Nullable
+    public List<String> getParameterValues() {
+        return parameterValues;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getPrepareNanos() {
+        return prepareNanos;
+    }
+
+    public long getExecuteNanos() {
+        return executeNanos;
+    }
+
+    public long getFetchNanos() {
+        return fetchNanos;
+    }
+
+    public long getTotalNanos() {
+        return prepareNanos + executeNanos + fetchNanos;
+    }
+
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * The output of <code>EXPLAIN</code>, or null if the plan has not been captured (yet)
+     */
+    @Nullable
+    public String getPlan() {
+        return plan;
+    }
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+
+    void toJson(StringBuilder json) {
+        json.append("{\"time\":");
+        appendString(json, time.toString());
+        json.append(",\"sql\":");
+        appendString(json, sql);
+        json.append(",\"parameterTypes\":");
+        appendList(json, parameterTypes);
+        if (parameterValues != null) {
+            json.append(",\"parameterValues\":");
+            appendList(json, parameterValues);
+        }
+        json.append(",\"rowCount\":").append(rowCount)
+                .append(",\"prepareMicros\":").append(prepareNanos / 1000)
+                .append(",\"executeMicros\":").append(executeNanos / 1000)
+                .append(",\"fetchMicros\":").append(fetchNanos / 1000)
+                .append(",\"totalMicros\":").append(getTotalNanos() / 1000);
+        json.append(",\"error\":");
+        appendString(json, error);
+        json.append(",\"plan\":");
+        appendString(json, plan);
+        json.append("}");
+    }
+
+    private static void appendList(StringBuilder json, List<String> values) {
+        json.append("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                json.append(",");
+            }
+            appendString(json, values.get(i));
+        }
+        json.append("]");
+    }
+
+    private static void appendString(StringBuilder json, @Nullable String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\r': json.append("\\r"); break;
+                case '\t': json.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{sql=\"" + sql + "\", totalMillis=" + getTotalNanos() / 1_000_000 + "}";
+    }
+}
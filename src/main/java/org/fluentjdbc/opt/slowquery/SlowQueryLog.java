@@ -0,0 +1,222 @@
+package org.fluentjdbc.opt.slowquery;
+
+import org.fluentjdbc.ConnectionSupplier;
+import org.fluentjdbc.QueryEvent;
+import org.fluentjdbc.QueryListener;
+import org.fluentjdbc.QueryListeners;
+import org.fluentjdbc.dialect.DatabaseDialect;
+import org.fluentjdbc.dialect.DatabaseDialects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records statements that take longer than a threshold in a bounded ring buffer, and captures
+ * the query plan by running <code>EXPLAIN</code> for the statement on a separate connection
+ * in the background. Parameter values are redacted unless {@link #includeParameterValues(boolean)}
+ * is set, but the values are still used to explain the statement.
+ *
+ * <pre>
+ * SlowQueryLog slowQueries = new SlowQueryLog(dataSource::getConnection, Duration.ofMillis(500)).install();
+ * ...
+ * response.getWriter().write(slowQueries.toJson());
+ * ...
+ * slowQueries.close();
+ * </pre>
+ */
+@ParametersAreNonnullByDefault
+public class SlowQueryLog implements QueryListener, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final ConnectionSupplier explainConnection;
+    private final long thresholdNanos;
+    private SlowQuery[] entries = new SlowQuery[100];
+    private long entryCount = 0;
+    private boolean includeParameterValues = false;
+    @Nullable
+    private Executor executor;
+    @Nullable
+    private ExecutorService defaultExecutor;
+
+    /**
+     * @param explainConnection supplies connections to run <code>EXPLAIN</code> on, which are closed after use
+     */
+    public SlowQueryLog(ConnectionSupplier explainConnection, Duration threshold) {
+        this.explainConnection = explainConnection;
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    /**
+     * The number of slow queries to keep, dropping the oldest
+     */
+    public synchronized SlowQueryLog capacity(int capacity) {
+        entries = new SlowQuery[capacity];
+        entryCount = 0;
+        return this;
+    }
+
+    public SlowQueryLog includeParameterValues(boolean includeParameterValues) {
+        this.includeParameterValues = includeParameterValues;
+        return this;
+    }
+
+    /**
+     * Where to run <code>EXPLAIN</code>, by default on a single background thread which is
+     * stopped by {@link #close()}. An executor set here is not shut down by this class.
+     */
+    public synchronized SlowQueryLog executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    private synchronized Executor getExecutor() {
+        if (executor == null) {
+            // Drop plans rather than queueing up work when the database is slow
+            defaultExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(100), runnable -> {
+                Thread thread = new Thread(runnable, "fluent-jdbc-explain");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+            executor = defaultExecutor;
+        }
+        return executor;
+    }
+
+    public SlowQueryLog install() {
+        QueryListeners.add(this);
+        return this;
+    }
+
+    public void uninstall() {
+        QueryListeners.remove(this);
+    }
+
+    /**
+     * Uninstalls this log and stops the default explain thread
+     */
+    @Override
+    public synchronized void close() {
+        uninstall();
+        if (defaultExecutor != null) {
+            defaultExecutor.shutdownNow();
+            executor = defaultExecutor = null;
+        }
+    }
+
+    @Override
+    public void queryExecuted(QueryEvent event) {
+        if (event.getTotalNanos() < thresholdNanos) {
+            return;
+        }
+        List<Object> parameters = event.getParameters() != null ? event.getParameters() : Collections.emptyList();
+        List<String> parameterTypes = new ArrayList<>();
+        List<String> parameterValues = includeParameterValues ? new ArrayList<>() : null;
+        for (Object parameter : parameters) {
+            parameterTypes.add(parameter != null ? parameter.getClass().getName() : null);
+            if (parameterValues != null) {
+                parameterValues.add(parameter != null ? parameter.toString() : null);
+            }
+        }
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), event.getSql(), parameterTypes, parameterValues, event.getRowCount(),
+                event.getPrepareNanos(), event.getExecuteNanos(), event.getFetchNanos(),
+                event.getError() != null ? event.getError().toString() : null);
+        logger.info("Slow query {}ms: {}", slowQuery.getTotalNanos() / 1_000_000, event.getSql());
+        add(slowQuery);
+        if (event.getParameters() != null) {
+            List<Object> explainParameters = new ArrayList<>(parameters);
+            getExecutor().execute(() -> explain(slowQuery, explainParameters));
+        }
+    }
+
+    private synchronized void add(SlowQuery slowQuery) {
+        entries[(int) (entryCount++ % entries.length)] = slowQuery;
+    }
+
+    /**
+     * The recorded slow queries, oldest first
+     */
+    public synchronized List<SlowQuery> getEntries() {
+        List<SlowQuery> result = new ArrayList<>();
+        for (long i = Math.max(0, entryCount - entries.length); i < entryCount; i++) {
+            result.add(entries[(int) (i % entries.length)]);
+        }
+        return result;
+    }
+
+    public synchronized void clear() {
+        entries = new SlowQuery[entries.length];
+        entryCount = 0;
+    }
+
+    /**
+     * Returns the recorded slow queries as a JSON array
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("[");
+        List<SlowQuery> entries = getEntries();
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            entries.get(i).toJson(json);
+        }
+        return json.append("]").toString();
+    }
+
+    private void explain(SlowQuery slowQuery, List<Object> parameters) {
+        try (Connection connection = explainConnection.getConnection()) {
+            DatabaseDialect dialect = DatabaseDialects.detect(connection);
+            String explainPrefix = dialect.getExplainPrefix();
+            if (explainPrefix == null) {
+                logger.debug("Don't know how to explain queries for {}", dialect.getProductName());
+                return;
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(explainPrefix + slowQuery.getSql())) {
+                if (dialect.isExplainWithParameters()) {
+                    for (int i = 0; i < parameters.size(); i++) {
+                        dialect.bindParameter(stmt, i + 1, parameters.get(i));
+                    }
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    slowQuery.setPlan(readPlan(rs));
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("Failed to explain {}: {}", slowQuery.getSql(), e.toString());
+        }
+    }
+
+    private static String readPlan(ResultSet rs) throws SQLException {
+        int columnCount = rs.getMetaData().getColumnCount();
+        StringBuilder plan = new StringBuilder();
+        while (rs.next()) {
+            if (plan.length() > 0) {
+                plan.append("\n");
+            }
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) {
+                    plan.append(" ");
+                }
+                plan.append(rs.getString(i));
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,96 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Fails when a change increases how much memory is allocated on the most used paths. The
+ * budgets are about twice what was measured on H2 with Java 8 to 21 when they were set, to
+ * leave room for differences between JVMs. If a test fails after a change, check whether the
+ * change allocates something per row or per parameter that it didn't before.
+ */
+public class AllocationBudgetTest {
+
+    private static final double LIST_BUDGET_PER_ROW = 40;
+    private static final double SINGLE_OBJECT_BUDGET = 6_000;
+    private static final double BIND_BUDGET_PER_PARAMETER = 48;
+    private static final double BULK_INSERT_BUDGET_PER_ROW = 16_000;
+
+    private final Connection connection;
+    private final DatabaseTable table = new DatabaseTableImpl("allocation_test");
+    private AllocationMeter meter;
+
+    public AllocationBudgetTest() throws SQLException {
+        connection = H2TestDatabase.createConnection();
+    }
+
+    @Before
+    public void setUp() throws SQLException {
+        assumeTrue("Thread allocation measurement not supported", AllocationMeter.isSupported());
+        meter = new AllocationMeter();
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("drop table if exists allocation_test");
+            statement.executeUpdate("create table allocation_test (id integer primary key, name varchar(50), code integer, created_at timestamp)");
+        }
+    }
+
+    @Test
+    public void listShouldStayWithinBudgetPerRow() throws Exception {
+        insertRows(0, 1000);
+        double bytesPerRow = meter.iterations(50).warmupIterations(200).bytesPer(1000,
+                () -> table.unordered().list(connection, row -> row.getString("name")));
+        assertThat(bytesPerRow).isLessThan(LIST_BUDGET_PER_ROW);
+    }
+
+    @Test
+    public void singleObjectShouldStayWithinBudget() throws Exception {
+        insertRows(0, 100);
+        double bytes = meter.bytesPerOperation(() -> table.where("id", 17).singleObject(connection, row -> row.getString("name")));
+        assertThat(bytes).isLessThan(SINGLE_OBJECT_BUDGET);
+    }
+
+    @Test
+    public void bindParametersShouldStayWithinBudgetPerParameter() throws Exception {
+        DatabaseStatement statement = new DatabaseStatement();
+        List<Object> parameters = Arrays.asList(17, "name", 4711L, Instant.now(), UUID.randomUUID(), null, 2.5, true);
+        try (PreparedStatement stmt = connection.prepareStatement("select ?, ?, ?, ?, ?, ?, ?, ?")) {
+            double bytesPerParameter = meter.bytesPer(parameters.size(), () -> statement.bindParameters(stmt, parameters));
+            assertThat(bytesPerParameter).isLessThan(BIND_BUDGET_PER_PARAMETER);
+        }
+    }
+
+    @Test
+    public void bulkInsertShouldStayWithinBudgetPerRow() throws Exception {
+        int[] nextId = { 0 };
+        double bytesPerRow = meter.iterations(20).warmupIterations(50).bytesPer(100, () -> {
+            insertRows(nextId[0], 100);
+            nextId[0] += 100;
+        });
+        assertThat(bytesPerRow).isLessThan(BULK_INSERT_BUDGET_PER_ROW);
+    }
+
+    private void insertRows(int start, int count) {
+        table.bulkInsert(IntStream.range(start, start + count).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .setField("code", i -> i % 10)
+                .setField("created_at", i -> Instant.now())
+                .execute(connection);
+    }
+
+}
@@ -0,0 +1,68 @@
+package org.fluentjdbc;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures how many bytes the current thread allocates while running an operation, using
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}. The operation is
+ * first run repeatedly to let the JIT compiler optimize it, as escape analysis can remove
+ * many allocations from compiled code. The lowest of several measurements is returned, to
+ * ignore allocations made by class loading or other one-time work.
+ */
+public class AllocationMeter {
+
+    public static boolean isSupported() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        return threadMXBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported();
+    }
+
+    private final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private int warmupIterations = 2000;
+    private int iterations = 500;
+    private int rounds = 5;
+
+    public AllocationMeter() {
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    public AllocationMeter warmupIterations(int warmupIterations) {
+        this.warmupIterations = warmupIterations;
+        return this;
+    }
+
+    public AllocationMeter iterations(int iterations) {
+        this.iterations = iterations;
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes allocated per call of the operation, divided by
+     * <code>unitsPerOperation</code>, e.g. the number of rows read by each call
+     */
+    public double bytesPer(int unitsPerOperation, Operation operation) throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            operation.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long min = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long start = threadMXBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < iterations; i++) {
+                operation.run();
+            }
+            min = Math.min(min, threadMXBean.getThreadAllocatedBytes(threadId) - start);
+        }
+        return (double) min / iterations / unitsPerOperation;
+    }
+
+    public double bytesPerOperation(Operation operation) throws Exception {
+        return bytesPer(1, operation);
+    }
+
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws Exception;
+    }
+}
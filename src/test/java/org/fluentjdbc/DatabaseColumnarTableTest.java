@@ -0,0 +1,129 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DatabaseColumnarTableTest extends AbstractDatabaseTest {
+
+    private DatabaseTable table = new DatabaseTableImpl("columnar_test_table");
+
+    protected final Connection connection;
+
+    public DatabaseColumnarTableTest() throws SQLException {
+        this(H2TestDatabase.createConnection(), H2TestDatabase.REPLACEMENTS);
+    }
+
+    protected DatabaseColumnarTableTest(Connection connection, Map<String, String> replacements) {
+        super(replacements);
+        this.connection = connection;
+    }
+
+    @Before
+    public void createTable() throws SQLException {
+        dropTableIfExists(connection, "columnar_test_table");
+        try(Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(preprocessCreateTable("create table columnar_test_table (id ${INTEGER_PK}, category varchar(50) null, amount double null, price decimal(10,2) null, total decimal(30,10) null, quantity integer null, created_at ${DATETIME} null, valid_from date null)"));
+        }
+    }
+
+    @Test
+    public void shouldReadValuesByColumn() {
+        Instant createdAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        table.insert()
+                .setField("category", "food")
+                .setField("amount", 12.5)
+                .setField("price", new BigDecimal("1234.56"))
+                .setField("total", new BigDecimal("12345678901234567890.1234567891"))
+                .setField("quantity", 3)
+                .setField("created_at", createdAt)
+                .setField("valid_from", LocalDate.of(2019, 6, 1))
+                .execute(connection);
+        table.insert().setField("category", null).setField("quantity", null).execute(connection);
+
+        DatabaseColumnarTable result = table.query().orderBy("id").columnar(connection);
+
+        assertThat(result.getRowCount()).isEqualTo(2);
+        assertThat(result.getColumn("quantity").getType()).isEqualTo(DatabaseColumnarTable.ColumnType.LONG);
+        assertThat(result.getColumn("amount").getType()).isEqualTo(DatabaseColumnarTable.ColumnType.DOUBLE);
+        assertThat(result.getColumn("category").getType()).isEqualTo(DatabaseColumnarTable.ColumnType.STRING);
+        assertThat(result.getString(0, "category")).isEqualTo("food");
+        assertThat(result.getDouble(0, "amount")).isEqualTo(12.5);
+        assertThat(result.getLong(0, "quantity")).isEqualTo(3);
+        assertThat(result.getInstant(0, "created_at")).isEqualTo(createdAt);
+        assertThat(result.getLocalDate(0, "valid_from")).isEqualTo(LocalDate.of(2019, 6, 1));
+
+        assertThat(result.isNull(0, "quantity")).isFalse();
+        assertThat(result.isNull(1, "quantity")).isTrue();
+        assertThat(result.getString(1, "category")).isNull();
+        assertThat(result.getInstant(1, "created_at")).isNull();
+        assertThat(result.getObject(1, "amount")).isNull();
+        assertThat(result.getObject(1, "price")).isNull();
+
+        assertThat(result.getColumn("price").getType()).isEqualTo(DatabaseColumnarTable.ColumnType.DECIMAL);
+        assertThat(result.getDouble(0, "price")).isEqualTo(1234.56);
+        assertThat(result.getLong(0, "price")).isEqualTo(1234L);
+        assertThat(result.getObject(0, "price")).isEqualTo(new BigDecimal("1234.56"));
+        assertThat(result.getColumn("total").getType()).isEqualTo(DatabaseColumnarTable.ColumnType.OBJECT);
+        assertThat(result.getObject(0, "total")).isEqualTo(new BigDecimal("12345678901234567890.1234567891"));
+        assertThat(result.getObject(1, "total")).isNull();
+
+        assertThatThrownBy(() -> result.getLong(0, "category"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> result.getLong(0, "created_at"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> result.getDouble(0, "valid_from"))
+                .isInstanceOf(UnsupportedOperationException.class);
+
+        assertThatThrownBy(() -> result.getColumn("missing"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Column {missing} is not present");
+    }
+
+    @Test
+    public void shouldFilterAndAggregateManyRows() {
+        String[] categories = { "food", "travel", "rent" };
+        table.bulkInsert(IntStream.range(0, 1000).boxed().collect(Collectors.toList()))
+                .setField("category", i -> categories[i % categories.length])
+                .setField("amount", i -> i % 10 == 0 ? null : (double) i)
+                .setField("quantity", i -> i)
+                .execute(connection);
+
+        DatabaseColumnarTable result = table.query().unordered().columnar(connection);
+        assertThat(result.getRowCount()).isEqualTo(1000);
+
+        DatabaseColumnarTable.Column category = result.getColumn("category");
+        DatabaseColumnarTable.Column quantity = result.getColumn("quantity");
+        assertThat(result.filter(row -> "travel".equals(category.getString(row)) && quantity.getLong(row) < 10))
+                .hasSize(3);
+
+        DoubleSummaryStatistics statistics = result.statistics("amount");
+        assertThat(statistics.getCount()).isEqualTo(900);
+        assertThat(statistics.getMax()).isEqualTo(999.0);
+
+        Map<String, Long> countByCategory = result.aggregate(HashMap::new,
+                (counts, row) -> counts.merge(category.getString(row), 1L, Long::sum),
+                (a, b) -> b.forEach((key, value) -> a.merge(key, value, Long::sum)));
+        assertThat(countByCategory)
+                .containsEntry("food", 334L)
+                .containsEntry("travel", 333L)
+                .containsEntry("rent", 333L);
+    }
+
+}
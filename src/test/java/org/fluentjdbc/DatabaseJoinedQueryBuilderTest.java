@@ -1,5 +1,6 @@
 package org.fluentjdbc;
 
+import org.fluentjdbc.dialect.DatabaseDialects;
 import org.fluentjdbc.h2.H2TestDatabase;
 import org.junit.Before;
 import org.junit.Test;
@@ -7,11 +8,13 @@ import org.junit.Test;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class DatabaseJoinedQueryBuilderTest extends AbstractDatabaseTest {
 
@@ -168,6 +171,132 @@ public class DatabaseJoinedQueryBuilderTest extends AbstractDatabaseTest {
                 .containsExactly("Army Alice", "Boutique Alice", "Army Bob");
     }
 
+    @Test
+    public void shouldLimitJoinedResults() throws SQLException {
+        long alice = savePerson("Alice");
+        long bob = savePerson("Bob");
+        long army = saveOrganization("Army");
+        long boutique = saveOrganization("Boutique");
+        saveMembership(alice, army);
+        saveMembership(alice, boutique);
+        saveMembership(bob, army);
+
+        DatabaseTableAlias m = memberships.alias("m");
+        DatabaseTableAlias p = persons.alias("p");
+        DatabaseTableAlias o = organizations.alias("o");
+
+        DatabaseJoinedQueryBuilder query = m
+                .join(m.column("person_id"), p.column("id"))
+                .join(m.column("organization_id"), o.column("id"))
+                .orderBy(p.column("name"))
+                .orderBy(o.column("name"));
+        assertThat(query.limit(2).list(connection, row -> row.getString(o.column("name")) + " " + row.getString(p.column("name"))))
+                .containsExactly("Army Alice", "Boutique Alice");
+        assertThat(query.<String>first(connection, row -> row.getString(o.column("name"))))
+                .isEqualTo("Army");
+    }
+
+    @Test
+    public void shouldSelectOnlySpecifiedColumns() throws SQLException {
+        long alice = savePerson("Alice");
+        long army = saveOrganization("Army");
+        saveMembership(alice, army);
+
+        DatabaseTableAlias m = memberships.alias("m");
+        DatabaseTableAlias p = persons.alias("p");
+        DatabaseTableAlias o = organizations.alias("o");
+
+        DatabaseJoinedQueryBuilder query = m
+                .join(m.column("person_id"), p.column("id"))
+                .join(m.column("organization_id"), o.column("id"))
+                .select(o.column("name"), p.column("name"))
+                .unordered();
+        assertThat(query.list(connection, row -> row.getString(o.column("name")) + " " + row.getString(p.column("name"))))
+                .containsExactly("Army Alice");
+        assertThatThrownBy(() -> query.list(connection, row -> row.getString(m.column("id"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Column {m.id} is not present");
+    }
+
+    @Test
+    public void shouldCountJoinedRows() throws SQLException {
+        long alice = savePerson("Alice");
+        long bob = savePerson("Bob");
+        long army = saveOrganization("Army");
+        long boutique = saveOrganization("Boutique");
+        saveMembership(alice, army);
+        saveMembership(alice, boutique);
+        saveMembership(bob, army);
+
+        DatabaseTableAlias m = memberships.alias("m");
+        DatabaseTableAlias p = persons.alias("p");
+        DatabaseTableAlias o = organizations.alias("o");
+
+        assertThat(m.join(m.column("person_id"), p.column("id"))
+                .whereExpression("p.name = ?", "Alice")
+                .count(connection))
+                .isEqualTo(2);
+        assertThat(m.join(m.column("person_id"), p.column("id"))
+                .whereExpression("p.name = ?", "Charlene")
+                .exists(connection))
+                .isFalse();
+        assertThat(m.join(m.column("organization_id"), o.column("id"))
+                .groupBy(o.column("name"))
+                .count(connection, row -> row.getString(o.column("name"))))
+                .containsEntry("Army", 2L)
+                .containsEntry("Boutique", 1L);
+    }
+
+    @Test
+    public void shouldSplitLargeInListsForJoinedAggregates() throws SQLException {
+        long alice = savePerson("Alice");
+        long bob = savePerson("Bob");
+        long army = saveOrganization("Army");
+        long boutique = saveOrganization("Boutique");
+        saveMembership(alice, army);
+        saveMembership(alice, boutique);
+        saveMembership(bob, army);
+
+        DatabaseTableAlias m = memberships.alias("m");
+        DatabaseTableAlias p = persons.alias("p");
+
+        List<Object> personIds = personIds(2500, alice, bob);
+        assertThat(m.join(m.column("person_id"), p.column("id")).whereIn("p.id", personIds).count(connection))
+                .isEqualTo(3);
+        assertThat(m.join(m.column("person_id"), p.column("id")).whereIn("p.id", personIds).exists(connection))
+                .isTrue();
+        assertThat(m.join(m.column("person_id"), p.column("id")).whereIn("p.id", personIds)
+                .sum(connection, m.column("organization_id")).longValue())
+                .isEqualTo(army + boutique + army);
+        assertThat(m.join(m.column("person_id"), p.column("id")).whereIn("p.id", personIds)
+                .min(connection, m.column("organization_id")).longValue())
+                .isEqualTo(Math.min(army, boutique));
+        assertThat(m.join(m.column("person_id"), p.column("id")).whereIn("p.id", personIds)
+                .max(connection, m.column("organization_id")).longValue())
+                .isEqualTo(Math.max(army, boutique));
+
+        List<Object> tooManyPersonIds = personIds(DatabaseDialects.detect(connection).getMaxParameters() + 1, alice, bob);
+        assertThatThrownBy(() -> m.join(m.column("person_id"), p.column("id")).whereIn("p.id", tooManyPersonIds)
+                .orderBy(p.column("name"))
+                .list(connection, row -> row.getString(p.column("name"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("parameters for whereIn");
+    }
+
+    /**
+     * Mixes Integer and Long ids, so the list is expanded to parameters even with dialects that bind arrays
+     */
+    private static List<Object> personIds(int count, long... ids) {
+        List<Object> result = new ArrayList<>();
+        for (long id : ids) {
+            result.add(id);
+        }
+        for (int i = 1; result.size() < count; i++) {
+            result.add(-i);
+        }
+        return result;
+    }
+
 
     private long savePerson(String personOneName) throws SQLException {
         return persons.insert()
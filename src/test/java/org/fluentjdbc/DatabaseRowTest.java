@@ -0,0 +1,95 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DatabaseRowTest extends AbstractDatabaseTest {
+
+    private DatabaseTable table = new DatabaseTableImpl("database_row_test_table");
+
+    protected final Connection connection;
+
+    public DatabaseRowTest() throws SQLException {
+        this(H2TestDatabase.createConnection(), H2TestDatabase.REPLACEMENTS);
+    }
+
+    protected DatabaseRowTest(Connection connection, Map<String, String> replacements) {
+        super(replacements);
+        this.connection = connection;
+    }
+
+    @Before
+    public void createTable() throws SQLException {
+        dropTableIfExists(connection, "database_row_test_table");
+        try(Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(preprocessCreateTable("create table database_row_test_table (id ${INTEGER_PK}, quantity integer null, amount decimal(10,2) null, ratio double null, payload varbinary(100) null)"));
+        }
+    }
+
+    @Test
+    public void shouldReadPrimitiveValues() {
+        table.insert()
+                .setField("quantity", 12)
+                .setField("amount", new BigDecimal("123.45"))
+                .setField("ratio", 0.25)
+                .setField("payload", new byte[] { 1, 2, 3 })
+                .execute(connection);
+
+        table.query().singleObject(connection, row -> {
+            assertThat(row.getInt("quantity", -1)).isEqualTo(12);
+            assertThat(row.getIntOrNull("quantity")).isEqualTo(12);
+            assertThat(row.getLong("quantity", -1)).isEqualTo(12L);
+            assertThat(row.getDouble("ratio", -1)).isEqualTo(0.25);
+            assertThat(row.getDoubleOrNull("ratio")).isEqualTo(0.25);
+            assertThat(row.getBigDecimal("amount")).isEqualByComparingTo("123.45");
+            assertThat(row.getBytes("payload")).containsExactly(1, 2, 3);
+            assertThat(row.isNull("quantity")).isFalse();
+            assertThat(row.isNull("ratio")).isFalse();
+            assertThat(row.isNull("amount")).isFalse();
+            assertThat(row.isNull("payload")).isFalse();
+            return null;
+        });
+    }
+
+    @Test
+    public void shouldReturnDefaultsForNullValues() {
+        table.insert().setField("quantity", null).execute(connection);
+
+        table.query().singleObject(connection, row -> {
+            assertThat(row.isNull("quantity")).isTrue();
+            assertThat(row.isNull("ratio")).isTrue();
+            assertThat(row.isNull("amount")).isTrue();
+            assertThat(row.isNull("payload")).isTrue();
+            assertThat(row.getInt("quantity", -1)).isEqualTo(-1);
+            assertThat(row.getIntOrNull("quantity")).isNull();
+            assertThat(row.getLong("ratio", -1)).isEqualTo(-1L);
+            assertThat(row.getDouble("ratio", -1)).isEqualTo(-1.0);
+            assertThat(row.getDoubleOrNull("ratio")).isNull();
+            assertThat(row.getBigDecimal("amount")).isNull();
+            assertThat(row.getBytes("payload")).isNull();
+            return null;
+        });
+    }
+
+    @Test
+    public void shouldReadByColumnIndex() {
+        table.insert().setField("quantity", 3).setField("ratio", 1.5).execute(connection);
+        table.insert().setField("quantity", 4).setField("ratio", null).execute(connection);
+
+        assertThat(table.select("quantity", "ratio").orderBy("quantity")
+                .list(connection, row -> row.getInt(1, 0) * row.getDouble(2, 2.0)))
+                .containsExactly(4.5, 8.0);
+        assertThat(table.query().unordered().<Integer>first(connection, row -> row.findColumn("RATIO")))
+                .isEqualTo(4);
+    }
+
+}
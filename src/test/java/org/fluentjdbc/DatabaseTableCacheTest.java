@@ -0,0 +1,180 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DatabaseTableCacheTest extends AbstractDatabaseTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private DatabaseTable table = new DatabaseTableWithTimestamps("cache_test_table");
+
+    protected final Connection connection;
+
+    public DatabaseTableCacheTest() throws SQLException {
+        this(H2TestDatabase.createConnection(), H2TestDatabase.REPLACEMENTS);
+    }
+
+    protected DatabaseTableCacheTest(Connection connection, Map<String, String> replacements) {
+        super(replacements);
+        this.connection = connection;
+    }
+
+    @Before
+    public void createTable() throws SQLException {
+        dropTableIfExists(connection, "cache_test_table");
+        try(Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(preprocessCreateTable("create table cache_test_table (id integer primary key, code integer null, price double null, name varchar(50) null, updated_at ${DATETIME} null, created_at ${DATETIME} null)"));
+        }
+    }
+
+    @Test
+    public void shouldLookUpRowsByPrimaryKey() {
+        Instant updatedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        DatabaseTable table = new DatabaseTableImpl("cache_test_table");
+        table.insert()
+                .setField("id", 17)
+                .setField("code", 4711)
+                .setField("price", 99.5)
+                .setField("name", "Blåbær")
+                .setField("updated_at", updatedAt)
+                .execute(connection);
+        table.insert().setField("id", 18).execute(connection);
+
+        DatabaseTableCache cache = new DatabaseTableCache(table, "id")
+                .longColumn("code")
+                .doubleColumn("price")
+                .stringColumn("name", 50)
+                .instantColumn("updated_at");
+        DatabaseTableCache.Snapshot snapshot = cache.refresh(connection);
+
+        assertThat(snapshot.size()).isEqualTo(2);
+        int row = snapshot.find(17);
+        assertThat(snapshot.getKey(row)).isEqualTo(17);
+        assertThat(snapshot.getLong(row, snapshot.columnIndex("code"))).isEqualTo(4711);
+        assertThat(snapshot.getDouble(row, snapshot.columnIndex("price"))).isEqualTo(99.5);
+        assertThat(snapshot.getString(row, snapshot.columnIndex("name"))).isEqualTo("Blåbær");
+        assertThat(snapshot.getInstant(row, snapshot.columnIndex("updated_at"))).isEqualTo(updatedAt);
+
+        int emptyRow = snapshot.find(18);
+        assertThat(snapshot.isNull(emptyRow, snapshot.columnIndex("code"))).isTrue();
+        assertThat(snapshot.getString(emptyRow, snapshot.columnIndex("name"))).isNull();
+        assertThat(snapshot.getInstant(emptyRow, snapshot.columnIndex("updated_at"))).isNull();
+
+        assertThat(snapshot.find(19)).isEqualTo(-1);
+        assertThat(snapshot.contains(18)).isTrue();
+    }
+
+    @Test
+    public void shouldKeepOldSnapshotUntilRefreshed() {
+        table.bulkInsert(IntStream.range(0, 1000).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i * 7)
+                .setField("code", i -> i)
+                .setField("name", i -> "name " + i)
+                .execute(connection);
+
+        DatabaseTableCache cache = createCache();
+        cache.refresh(connection);
+        DatabaseTableCache.Snapshot snapshot = cache.snapshot();
+        assertThat(snapshot.size()).isEqualTo(1000);
+        int name = snapshot.columnIndex("name");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(snapshot.getString(snapshot.find(i * 7), name)).isEqualTo("name " + i);
+        }
+
+        table.where("id", 7).update().setField("name", "changed").execute(connection);
+        assertThat(snapshot.getString(snapshot.find(7), name)).isEqualTo("name 1");
+        cache.refresh(connection);
+        assertThat(cache.snapshot().getString(cache.snapshot().find(7), name)).isEqualTo("changed");
+        assertThat(snapshot.getString(snapshot.find(7), name)).isEqualTo("name 1");
+    }
+
+    @Test
+    public void shouldRestoreSnapshotAndReadChangedRows() throws IOException {
+        table.bulkInsert(IntStream.range(1, 100).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .execute(connection);
+        Path file = temporaryFolder.getRoot().toPath().resolve("cache_test_table.snapshot");
+
+        DatabaseTableCache cache = createCache().watermarkColumn("updated_at");
+        cache.refresh(connection);
+        cache.writeSnapshot(file);
+        assertThat(Files.size(file)).isGreaterThan(99 * 8);
+
+        DatabaseTableCache.Snapshot unchanged = createCache().watermarkColumn("updated_at").load(file, connection);
+        assertThat(unchanged.size()).isEqualTo(99);
+        assertThat(unchanged.getString(unchanged.find(42), unchanged.columnIndex("name"))).isEqualTo("name 42");
+
+        table.where("id", 42).update().setField("name", "changed").execute(connection);
+        table.insert().setField("id", 100).setField("name", "new").execute(connection);
+
+        DatabaseTableCache restored = createCache().watermarkColumn("updated_at");
+        DatabaseTableCache.Snapshot snapshot = restored.load(file, connection);
+        int name = snapshot.columnIndex("name");
+        assertThat(snapshot.size()).isEqualTo(100);
+        assertThat(snapshot.getString(snapshot.find(42), name)).isEqualTo("changed");
+        assertThat(snapshot.getString(snapshot.find(100), name)).isEqualTo("new");
+        assertThat(snapshot.getString(snapshot.find(43), name)).isEqualTo("name 43");
+        assertThat(snapshot.getWatermark()).isAfterOrEqualTo(unchanged.getWatermark());
+    }
+
+    @Test
+    public void shouldReloadWhenSnapshotHasDifferentColumns() {
+        table.insert().setField("id", 1).setField("code", 12).setField("name", "one").execute(connection);
+        Path file = temporaryFolder.getRoot().toPath().resolve("cache_test_table.snapshot");
+        DatabaseTableCache cache = new DatabaseTableCache(table, "id").stringColumn("name", 10).watermarkColumn("updated_at");
+        cache.refresh(connection);
+        cache.writeSnapshot(file);
+
+        DatabaseTableCache.Snapshot snapshot = createCache().watermarkColumn("updated_at").load(file, connection);
+        assertThat(snapshot.getLong(snapshot.find(1), snapshot.columnIndex("code"))).isEqualTo(12);
+    }
+
+    @Test
+    public void shouldRejectTooLongStrings() {
+        table.insert().setField("id", 1).setField("name", "a string which is too long").execute(connection);
+
+        DatabaseTableCache cache = new DatabaseTableCache(table, "id").stringColumn("name", 10);
+        assertThatThrownBy(() -> cache.refresh(connection))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("longer than 10 bytes");
+        assertThatThrownBy(cache::snapshot).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void shouldRejectStringColumnsLargerThanLengthPrefix() {
+        DatabaseTableCache cache = new DatabaseTableCache(table, "id");
+        assertThatThrownBy(() -> cache.stringColumn("name", Short.MAX_VALUE + 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxBytes for name");
+    }
+
+    private DatabaseTableCache createCache() {
+        return new DatabaseTableCache(table, "id")
+                .longColumn("code")
+                .doubleColumn("price")
+                .stringColumn("name", 50)
+                .instantColumn("updated_at");
+    }
+
+}
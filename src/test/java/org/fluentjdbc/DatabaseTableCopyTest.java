@@ -0,0 +1,150 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DatabaseTableCopyTest extends AbstractDatabaseTest {
+
+    public DatabaseTableCopyTest() {
+        super(H2TestDatabase.REPLACEMENTS);
+    }
+
+    private static final String CREATE_TABLE =
+            "create table copy_table (id integer primary key, name varchar(100) not null, amount integer null)";
+
+    private Connection sourceConnection;
+    private Connection targetConnection;
+
+    private DatabaseTable table = new DatabaseTableImpl("copy_table");
+
+    @Before
+    public void openConnection() throws SQLException {
+        JdbcDataSource sourceDataSource = new JdbcDataSource();
+        sourceDataSource.setUrl("jdbc:h2:mem:" + getClass().getName() + "-source");
+        sourceConnection = sourceDataSource.getConnection();
+
+        JdbcDataSource targetDataSource = new JdbcDataSource();
+        targetDataSource.setUrl("jdbc:h2:mem:" + getClass().getName() + "-target");
+        targetConnection = targetDataSource.getConnection();
+
+        for (Connection connection : new Connection[] { sourceConnection, targetConnection }) {
+            try(Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate(preprocessCreateTable(CREATE_TABLE));
+            }
+        }
+    }
+
+    @After
+    public void closeConnections() throws SQLException {
+        sourceConnection.close();
+        targetConnection.close();
+    }
+
+    @Test
+    public void shouldCopyAndTransformAllRows() {
+        table.bulkInsert(IntStream.range(0, 2500).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .setField("amount", i -> i % 10 == 0 ? null : i)
+                .execute(sourceConnection);
+
+        List<DatabaseTableCopy.Progress> progress = new ArrayList<>();
+        DatabaseTableCopy.Progress result = new DatabaseTableCopy(table, "id")
+                .chunkSize(100)
+                .queueCapacity(2)
+                .mappingThreads(4)
+                .transform("name", name -> name.toString().toUpperCase())
+                .progressListener(progress::add)
+                .copy(sourceConnection, targetConnection);
+
+        assertThat(result.getRowsWritten()).isEqualTo(2500);
+        assertThat(result.getLastKey()).isEqualTo(2499);
+        assertThat(progress).hasSize(25);
+        assertThat(progress).allMatch(p -> p.getQueueDepth() <= 2);
+        assertThat(table.query().count(targetConnection)).isEqualTo(2500);
+        assertThat(table.where("id", 1234).singleString(targetConnection, "name")).isEqualTo("NAME 1234");
+        assertThat(table.where("id", 20).<Integer>singleObject(targetConnection, row -> row.getIntOrNull("amount"))).isNull();
+    }
+
+    @Test
+    public void shouldResumeAfterLastCopiedKey() {
+        table.bulkInsert(IntStream.range(0, 300).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .execute(sourceConnection);
+        table.bulkInsert(IntStream.range(0, 100).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .execute(targetConnection);
+
+        DatabaseTableCopy.Progress result = new DatabaseTableCopy(table, "id").chunkSize(64).copy(sourceConnection, targetConnection);
+
+        assertThat(result.getRowsWritten()).isEqualTo(200);
+        assertThat(table.query().count(targetConnection)).isEqualTo(300);
+    }
+
+    @Test
+    public void shouldStopOnFailingTransform() throws SQLException {
+        table.bulkInsert(IntStream.range(0, 300).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .execute(sourceConnection);
+
+        assertThatThrownBy(() -> new DatabaseTableCopy(table, "id")
+                .chunkSize(50)
+                .transform("amount", amount -> { throw new IllegalArgumentException("Invalid amount"); })
+                .copy(sourceConnection, targetConnection))
+                .hasMessageContaining("Invalid amount");
+        assertThat(table.query().count(targetConnection)).isZero();
+        assertThat(sourceConnection.getAutoCommit()).isTrue();
+    }
+
+    @Test
+    public void shouldStopReaderWhenWriterFails() throws SQLException {
+        table.bulkInsert(IntStream.range(0, 2000).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .execute(sourceConnection);
+        try (Statement stmt = targetConnection.createStatement()) {
+            stmt.executeUpdate("alter table copy_table drop column amount");
+        }
+
+        // The reader restores auto-commit slowly, which must still happen before copy() returns
+        Connection slowSource = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] { Connection.class }, (proxy, method, args) -> {
+            if (method.getName().equals("setAutoCommit") && Boolean.TRUE.equals(args[0])) {
+                Thread.sleep(200);
+            }
+            try {
+                return method.invoke(sourceConnection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+
+        assertThatThrownBy(() -> new DatabaseTableCopy(table, "id")
+                .chunkSize(10)
+                .queueCapacity(1)
+                .copy(slowSource, targetConnection))
+                .isInstanceOf(SQLException.class);
+        assertThat(Thread.getAllStackTraces().keySet())
+                .noneMatch(thread -> thread.getName().equals("fluent-jdbc-copy-reader-copy_table"));
+        assertThat(sourceConnection.getAutoCommit()).isTrue();
+    }
+
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.fluentjdbc.DatabaseTable.RowMapper;
+import org.fluentjdbc.dialect.DatabaseDialects;
 import org.fluentjdbc.h2.H2TestDatabase;
 import org.junit.Before;
 import org.junit.Test;
@@ -12,10 +13,15 @@ import javax.annotation.Nonnull;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.fluentjdbc.FluentJdbcAsserts.assertThat;
+import static org.junit.Assume.assumeTrue;
 
 public class DatabaseTableTest extends AbstractDatabaseTest {
 
@@ -89,6 +95,208 @@ public class DatabaseTableTest extends AbstractDatabaseTest {
             .doesNotContain(id3.toString());
     }
 
+    @Test
+    public void shouldReuseStatementForInListsOfSimilarSize() {
+        for (int code = 1; code <= 5; code++) {
+            table.insert().setField("code", code).setField("name", "row " + code).execute(connection);
+        }
+        List<String> statements = new ArrayList<>();
+        QueryListener listener = event -> statements.add(event.getSql());
+        QueryListeners.add(listener);
+        try {
+            assertThat(table.whereIn("code", Arrays.asList(1, 2, 3)).unordered().listLongs(connection, "code"))
+                    .containsOnly(1L, 2L, 3L);
+            assertThat(table.whereIn("code", Arrays.asList(2, 3, 4, 5)).unordered().listLongs(connection, "code"))
+                    .containsOnly(2L, 3L, 4L, 5L);
+        } finally {
+            QueryListeners.remove(listener);
+        }
+        assertThat(statements).hasSize(2);
+        assertThat(statements.get(0)).isEqualTo(statements.get(1));
+    }
+
+    @Test
+    public void shouldSplitLargeInLists() {
+        table.bulkInsert(IntStream.range(0, 3000).boxed().collect(Collectors.toList()))
+                .setField("code", i -> i)
+                .setField("name", i -> "row " + i)
+                .execute(connection);
+        List<Integer> codes = IntStream.range(0, 2500).boxed().collect(Collectors.toList());
+        codes.addAll(IntStream.range(0, 100).boxed().collect(Collectors.toList()));
+
+        List<String> statements = new ArrayList<>();
+        QueryListener listener = event -> statements.add(event.getSql());
+        QueryListeners.add(listener);
+        List<Long> result;
+        try {
+            result = table.whereIn("code", codes).unordered().listLongs(connection, "code");
+        } finally {
+            QueryListeners.remove(listener);
+        }
+        assertThat(result).hasSize(2500).doesNotHaveDuplicates();
+        if (DatabaseDialects.detect(connection).getArrayInExpression() != null) {
+            assertThat(statements).hasSize(1);
+        } else {
+            assertThat(statements.size()).isGreaterThanOrEqualTo(3);
+        }
+    }
+
+    @Test
+    public void shouldSplitLargeInListsForAggregatesAndExists() {
+        table.bulkInsert(IntStream.range(0, 3000).boxed().collect(Collectors.toList()))
+                .setField("code", i -> i)
+                .setField("name", i -> "row " + i)
+                .execute(connection);
+        List<Object> codes = mixedTypes(IntStream.range(0, 2500));
+        codes.addAll(mixedTypes(IntStream.range(0, 100)));
+        List<Object> missingCodes = mixedTypes(IntStream.range(5000, 7500));
+
+        List<String> statements = new ArrayList<>();
+        QueryListener listener = event -> statements.add(event.getSql());
+        QueryListeners.add(listener);
+        try {
+            assertThat(table.whereIn("code", codes).count(connection)).isEqualTo(2500);
+            assertThat(statements.size()).isGreaterThanOrEqualTo(3);
+            assertThat(table.whereIn("code", codes).sum(connection, "code").longValue()).isEqualTo(2500L * 2499 / 2);
+            assertThat(table.whereIn("code", codes).min(connection, "code").longValue()).isEqualTo(0);
+            assertThat(table.whereIn("code", codes).max(connection, "code").longValue()).isEqualTo(2499);
+            assertThat(table.whereIn("code", codes).exists(connection)).isTrue();
+            assertThat(table.whereIn("code", missingCodes).exists(connection)).isFalse();
+            assertThat(table.whereIn("code", missingCodes).sum(connection, "code")).isNull();
+            assertThat(table.whereIn("code", missingCodes).min(connection, "code")).isNull();
+            assertThat(table.whereIn("code", missingCodes).max(connection, "code")).isNull();
+            assertThat(table.whereIn("code", missingCodes).count(connection)).isEqualTo(0);
+        } finally {
+            QueryListeners.remove(listener);
+        }
+    }
+
+    @Test
+    public void shouldRejectInListsLongerThanParameterLimitWhenQueryCantBeSplit() {
+        table.insert().setField("code", 1).setField("name", "row 1").execute(connection);
+        List<Object> codes = mixedTypes(IntStream.rangeClosed(1, DatabaseDialects.detect(connection).getMaxParameters() + 1));
+
+        List<ThrowingCallable> queries = Arrays.asList(
+                () -> table.whereIn("code", codes).singleLong(connection, "code"),
+                () -> table.whereIn("code", codes).unordered().first(connection, row -> row.getLong("code")),
+                () -> table.whereIn("code", codes).unordered().longColumn(connection, "code"),
+                () -> table.whereIn("code", codes).unordered().intColumn(connection, "code"),
+                () -> table.whereIn("code", codes).unordered().doubleColumn(connection, "code"),
+                () -> table.whereIn("code", codes).unordered().columnar(connection),
+                () -> table.whereIn("code", codes).groupBy("name").count(connection, row -> row.getString("name")),
+                () -> table.whereIn("code", codes).orderBy("code").listLongs(connection, "code"),
+                () -> table.whereIn("code", codes).unordered().limit(10).listLongs(connection, "code"),
+                () -> table.whereIn("code", codes).orderBy("code").forEach(connection, row -> {})
+        );
+        for (ThrowingCallable query : queries) {
+            assertThatThrownBy(query)
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("parameters for whereIn");
+        }
+    }
+
+    private static List<Object> mixedTypes(IntStream values) {
+        return values.mapToObj(i -> i % 2 == 0 ? (Object) i : (Object) (long) i).collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldBindInListAsArrayWhenValuesHaveSameType() {
+        assumeTrue(DatabaseDialects.detect(connection).getArrayInExpression() != null);
+        for (int code = 1; code <= 5; code++) {
+            table.insert().setField("code", code).setField("name", "row " + code).execute(connection);
+        }
+        List<String> statements = new ArrayList<>();
+        QueryListener listener = event -> statements.add(event.getSql());
+        QueryListeners.add(listener);
+        try {
+            assertThat(table.whereIn("code", Arrays.asList(1, 2, 3)).unordered().listLongs(connection, "code"))
+                    .containsOnly(1L, 2L, 3L);
+            assertThat(table.whereIn("name", Arrays.asList("row 4", "row 5")).unordered().listLongs(connection, "code"))
+                    .containsOnly(4L, 5L);
+            assertThat(table.whereIn("code", Arrays.asList(1, 2L, null)).unordered().listLongs(connection, "code"))
+                    .containsOnly(1L, 2L);
+        } finally {
+            QueryListeners.remove(listener);
+        }
+        assertThat(statements.get(0)).endsWith("code = any(?)");
+        assertThat(statements.get(1)).endsWith("name = any(?)");
+        assertThat(statements.get(2)).endsWith("code IN (?,?,?,?)");
+    }
+
+    @Test
+    public void shouldLimitResults() {
+        table.insert().setField("code", 3).setField("name", "limited").execute(connection);
+        table.insert().setField("code", 1).setField("name", "limited").execute(connection);
+        table.insert().setField("code", 2).setField("name", "limited").execute(connection);
+        table.insert().setField("code", 4).setField("name", "other").execute(connection);
+
+        assertThat(table.where("name", "limited").orderBy("code").limit(2).listLongs(connection, "code"))
+            .containsExactly(1L, 2L);
+        assertThat(table.where("name", "limited").orderBy("code desc").<Long>first(connection, row -> row.getLong("code")))
+            .isEqualTo(3L);
+        assertThat(table.where("name", "missing").orderBy("code").<Long>first(connection, row -> row.getLong("code")))
+            .isNull();
+    }
+
+    @Test
+    public void shouldRejectNegativeLimit() {
+        assertThatThrownBy(() -> table.where("name", "limited").orderBy("code").limit(-1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldSelectOnlySpecifiedColumns() {
+        table.insert().setField("code", 1).setField("name", "projected").setField("comment", "a long comment").execute(connection);
+
+        assertThat(table.where("code", 1).select("code", "name").singleString(connection, "name"))
+            .isEqualTo("projected");
+        assertThatThrownBy(() -> table.select("code").where("code", 1).singleString(connection, "comment"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Column {comment} is not present");
+    }
+
+    @Test
+    public void shouldCalculateAggregates() {
+        table.insert().setField("code", 10).setField("name", "first").execute(connection);
+        table.insert().setField("code", 20).setField("name", "first").execute(connection);
+        table.insert().setField("code", 40).setField("name", "second").execute(connection);
+
+        assertThat(table.query().count(connection)).isEqualTo(3);
+        assertThat(table.where("name", "first").count(connection)).isEqualTo(2);
+        assertThat(table.where("name", "first").exists(connection)).isTrue();
+        assertThat(table.where("name", "missing").exists(connection)).isFalse();
+        assertThat(table.query().min(connection, "code").longValue()).isEqualTo(10);
+        assertThat(table.query().max(connection, "code").longValue()).isEqualTo(40);
+        assertThat(table.where("name", "first").sum(connection, "code").longValue()).isEqualTo(30);
+        assertThat(table.where("name", "missing").sum(connection, "code")).isNull();
+    }
+
+    @Test
+    public void shouldCountGroups() {
+        table.insert().setField("code", 10).setField("name", "first").execute(connection);
+        table.insert().setField("code", 20).setField("name", "first").execute(connection);
+        table.insert().setField("code", 40).setField("name", "second").execute(connection);
+
+        assertThat(table.whereExpression("code > ?", 5).groupBy("name").count(connection, row -> row.getString("name")))
+            .containsEntry("first", 2L)
+            .containsEntry("second", 1L)
+            .hasSize(2);
+    }
+
+    @Test
+    public void shouldReadColumnsIntoPrimitiveLists() {
+        table.insert().setField("code", 3).setField("name", "column").execute(connection);
+        table.insert().setField("code", 1).setField("name", "column").execute(connection);
+        table.insert().setField("code", 2).setField("name", "column").execute(connection);
+
+        assertThat(table.where("name", "column").orderBy("code").longColumn(connection, "code").toArray())
+            .containsExactly(1L, 2L, 3L);
+        assertThat(table.where("name", "column").orderBy("code desc").intColumn(connection, "code").toArray())
+            .containsExactly(3, 2, 1);
+        assertThat(table.where("name", "column").unordered().doubleColumn(connection, "code").stream().sum())
+            .isEqualTo(6.0);
+    }
+
     @Test
     public void shouldListOnOptional() throws SQLException {
         Object id1 = table.insert().setPrimaryKey("id", null).setField("code", 1).setField("name", "yes").execute(connection);
@@ -0,0 +1,229 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.opt.junit.DbContextRule;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.Description;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class DbContextConnectionTest {
+
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+
+    private final AtomicInteger acquiredConnections = new AtomicInteger();
+
+    private final ConnectionSupplier connectionSupplier = () -> {
+        acquiredConnections.incrementAndGet();
+        return dataSource.getConnection();
+    };
+
+    private final List<ConnectionHoldEvent> events = new ArrayList<>();
+
+    private final QueryListener listener = new QueryListener() {
+        @Override
+        public void queryExecuted(QueryEvent event) {
+        }
+
+        @Override
+        public void connectionReleased(ConnectionHoldEvent event) {
+            events.add(event);
+        }
+    };
+
+    @Before
+    public void createTable() throws SQLException {
+        dataSource.setUrl("jdbc:h2:mem:dbcontextconnection;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("drop table if exists hold_test_table");
+            stmt.executeUpdate("create table hold_test_table (id integer primary key, name varchar(50) not null)");
+        }
+        QueryListeners.add(listener);
+    }
+
+    @After
+    public void removeListener() {
+        QueryListeners.remove(listener);
+    }
+
+    @Test
+    public void shouldReportHoldAndIdleTime() throws InterruptedException {
+        DbContext context = new DbContext().allocationStackSampling(1.0);
+        DbTableContext table = context.table("hold_test_table");
+        try (DbContextConnection ignored = context.startConnection(connectionSupplier)) {
+            table.insert().setField("id", 1).setField("name", "one").execute();
+            Thread.sleep(50);
+            table.where("id", 1).unordered().listStrings("name");
+        }
+
+        assertThat(events).hasSize(1);
+        ConnectionHoldEvent event = events.get(0);
+        assertThat(event.getStatementCount()).isEqualTo(2);
+        assertThat(event.getIdleNanos()).isGreaterThanOrEqualTo(50_000_000L);
+        assertThat(event.getHoldNanos()).isGreaterThanOrEqualTo(event.getIdleNanos());
+        assertThat(event.getAllocationStack().getStackTrace()[0].getMethodName()).isEqualTo("startConnection");
+    }
+
+    @Test
+    public void shouldOnlySampleAllocationStackWhenConfigured() {
+        DbContext context = new DbContext();
+        try (DbContextConnection ignored = context.startConnection(connectionSupplier)) {
+            context.table("hold_test_table").unordered().listStrings("name");
+        }
+        assertThat(events).extracting(ConnectionHoldEvent::getAllocationStack).containsOnlyNulls();
+    }
+
+    @Test
+    public void shouldReleaseConnectionBetweenStatements() throws SQLException {
+        DbContext context = new DbContext().releaseBetweenStatements(true);
+        DbTableContext table = context.table("hold_test_table");
+        try (DbContextConnection ignored = context.startConnection(connectionSupplier)) {
+            table.insert().setField("id", 1).setField("name", "one").execute();
+            table.insert().setField("id", 2).setField("name", "two").execute();
+            assertThat(acquiredConnections.get()).isEqualTo(2);
+            assertThat(events).hasSize(2);
+
+            List<String> names = new ArrayList<>();
+            table.unordered().forEach(row -> names.add(table.where("id", row.getLong("id")).singleString("name")));
+            assertThat(names).containsExactlyInAnyOrder("one", "two");
+            assertThat(acquiredConnections.get()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void shouldReacquireConnectionWithinOperationWhenReleasingBetweenStatements() {
+        DbContext context = new DbContext().releaseBetweenStatements(true);
+        DbTableContext table = context.table("hold_test_table");
+        try (DbContextConnection ignored = context.startConnection(connectionSupplier)) {
+            table.insert().setField("id", 1).setField("name", "one").execute();
+            table.newSaveBuilder("id", 1L).setField("name", "updated").execute();
+            assertThat(table.where("id", 1).singleString("name")).isEqualTo("updated");
+
+            List<Object> ids = new ArrayList<>();
+            for (int i = 0; i < 2500; i++) {
+                ids.add(i % 2 == 0 ? (Object) i : (Object) (long) i);
+            }
+            int acquiredBeforeCount = acquiredConnections.get();
+            assertThat(table.whereIn("id", ids).count()).isEqualTo(1);
+            assertThat(acquiredConnections.get() - acquiredBeforeCount).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    public void shouldKeepConnectionDuringTransaction() throws SQLException {
+        DbContext context = new DbContext().releaseBetweenStatements(true);
+        DbTableContext table = context.table("hold_test_table");
+        try (DbContextConnection connection = context.startConnection(connectionSupplier)) {
+            context.getThreadConnection().setAutoCommit(false);
+            table.insert().setField("id", 1).setField("name", "one").execute();
+            table.insert().setField("id", 2).setField("name", "two").execute();
+            connection.commitTransaction();
+        }
+        assertThat(acquiredConnections.get()).isEqualTo(1);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotCacheDialectPerConnectionSupplier() {
+        DbContext context = new DbContext();
+        for (int i = 0; i < 1000; i++) {
+            try (DbContextConnection ignored = context.startConnection(() -> dataSource.getConnection())) {
+                context.table("hold_test_table").query().limit(1).listStrings("name");
+            }
+        }
+        try (DbContextConnection ignored = context.startConnection(dataSource)) {
+            context.table("hold_test_table").query().limit(1).listStrings("name");
+        }
+        assertThat(context.getDetectedDialectCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCountQueriesByShape() {
+        DbContext context = new DbContext().countQueries(true);
+        DbTableContext table = context.table("hold_test_table");
+        DbContextConnection connection;
+        try (DbContextConnection c = context.startConnection(connectionSupplier)) {
+            connection = c;
+            for (int i = 0; i < 5; i++) {
+                table.insert().setField("id", i).setField("name", "name " + i).execute();
+            }
+            table.where("id", 3).singleString("name");
+        }
+        assertThat(connection.getQueryCounts()).containsOnly(
+                entry("insert into hold_test_table (id,name) values (?,?)", 5),
+                entry("select * from hold_test_table where id = ? limit ?", 1)
+        );
+    }
+
+    @Test
+    public void shouldFailOnRepeatedQueries() {
+        DbContext context = new DbContext().repeatedQueryThreshold(3).failOnRepeatedQueries(true);
+        DbTableContext table = context.table("hold_test_table");
+        try (DbContextConnection ignored = context.startConnection(connectionSupplier)) {
+            for (int i = 0; i < 3; i++) {
+                table.where("id", i).singleString("name");
+            }
+            assertThatThrownBy(() -> table.where("id", 3).singleString("name"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("more than 3 times")
+                    .hasMessageContaining("select * from hold_test_table where id = ?");
+        }
+    }
+
+    @Test
+    public void shouldStopRepeatedStatementBeforeItIsExecuted() {
+        DbContext context = new DbContext().repeatedQueryThreshold(3).failOnRepeatedQueries(true);
+        DbTableContext table = context.table("hold_test_table");
+        try (DbContextConnection ignored = context.startConnection(connectionSupplier)) {
+            for (int i = 0; i < 3; i++) {
+                table.insert().setField("id", i).setField("name", "name " + i).execute();
+            }
+            assertThatThrownBy(() -> table.insert().setField("id", 3).setField("name", "name 3").execute())
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("more than 3 times");
+            assertThat(table.query().count()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    public void shouldFailTestsWhichExceedQueryBudget() {
+        DbContextRule rule = new DbContextRule(dataSource).queryBudgetPerShape(2);
+        DbTableContext table = rule.table("hold_test_table");
+        org.junit.runners.model.Statement withinBudget = rule.apply(new org.junit.runners.model.Statement() {
+            @Override
+            public void evaluate() {
+                table.where("id", 1).singleString("name");
+                table.where("id", 2).singleString("name");
+            }
+        }, Description.EMPTY);
+        org.junit.runners.model.Statement overBudget = rule.apply(new org.junit.runners.model.Statement() {
+            @Override
+            public void evaluate() {
+                for (int i = 0; i < 3; i++) {
+                    table.where("id", i).singleString("name");
+                }
+            }
+        }, Description.EMPTY);
+
+        assertThatThrownBy(overBudget::evaluate)
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("at most 2 times");
+        try {
+            withinBudget.evaluate();
+        } catch (Throwable e) {
+            throw new AssertionError("Should be within budget", e);
+        }
+    }
+}
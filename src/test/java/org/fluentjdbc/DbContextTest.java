@@ -182,6 +182,49 @@ public class DbContextTest {
             .doesNotContain(id3.toString());
     }
 
+    @Test
+    public void shouldLimitResults() {
+        tableContext.insert().setField("code", 3).setField("name", "limited").execute();
+        tableContext.insert().setField("code", 1).setField("name", "limited").execute();
+        tableContext.insert().setField("code", 2).setField("name", "limited").execute();
+
+        assertThat(tableContext.where("name", "limited").orderBy("code").limit(2).listLongs("code"))
+            .containsExactly(1L, 2L);
+        assertThat(tableContext.where("name", "limited").orderBy("code desc").<Long>first(row -> row.getLong("code")))
+            .isEqualTo(3L);
+    }
+
+    @Test
+    public void shouldSelectOnlySpecifiedColumns() {
+        tableContext.insert().setField("code", 1).setField("name", "projected").execute();
+
+        assertThat(tableContext.select("name").where("code", 1).singleString("name"))
+            .isEqualTo("projected");
+    }
+
+    @Test
+    public void shouldCalculateAggregates() {
+        tableContext.insert().setField("code", 10).setField("name", "first").execute();
+        tableContext.insert().setField("code", 20).setField("name", "first").execute();
+        tableContext.insert().setField("code", 40).setField("name", "second").execute();
+
+        assertThat(tableContext.where("name", "first").count()).isEqualTo(2);
+        assertThat(tableContext.where("name", "second").exists()).isTrue();
+        assertThat(tableContext.query().max("code").longValue()).isEqualTo(40);
+        assertThat(tableContext.query().groupBy("name").count(row -> row.getString("name")))
+            .containsEntry("first", 2L)
+            .containsEntry("second", 1L);
+    }
+
+    @Test
+    public void shouldReadColumnsIntoPrimitiveLists() {
+        tableContext.insert().setField("code", 2).setField("name", "column").execute();
+        tableContext.insert().setField("code", 1).setField("name", "column").execute();
+
+        assertThat(tableContext.where("name", "column").orderBy("code").longColumn("code").toArray())
+            .containsExactly(1L, 2L);
+    }
+
     @Test
     public void shouldListOnOptional() {
         Object id1 = tableContext.insert().setPrimaryKey("id", null).setField("code", 1).setField("name", "yes").execute();
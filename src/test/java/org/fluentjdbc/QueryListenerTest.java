@@ -0,0 +1,107 @@
+package org.fluentjdbc;
+
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class QueryListenerTest extends AbstractDatabaseTest {
+
+    private DatabaseTable table = new DatabaseTableImpl("listener_test_table");
+
+    private List<QueryEvent> events = new ArrayList<>();
+
+    private QueryListener listener = events::add;
+
+    protected final Connection connection;
+
+    public QueryListenerTest() throws SQLException {
+        this(H2TestDatabase.createConnection(), H2TestDatabase.REPLACEMENTS);
+    }
+
+    protected QueryListenerTest(Connection connection, Map<String, String> replacements) {
+        super(replacements);
+        this.connection = connection;
+    }
+
+    @Before
+    public void createTable() throws SQLException {
+        dropTableIfExists(connection, "listener_test_table");
+        try(Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(preprocessCreateTable("create table listener_test_table (id ${INTEGER_PK}, name varchar(50) not null)"));
+        }
+        QueryListeners.add(listener);
+    }
+
+    @After
+    public void removeListener() {
+        QueryListeners.remove(listener);
+    }
+
+    @Test
+    public void shouldReportQueries() throws SQLException {
+        table.insert().setField("name", "a").execute(connection);
+        table.newSaveBuilder("id", null).setField("name", "b").execute(connection);
+        List<String> names = table.unordered().listStrings(connection, "name");
+
+        assertThat(names).containsExactlyInAnyOrder("a", "b");
+        QueryEvent insert = events.get(0);
+        assertThat(insert.getSql()).startsWith("insert into listener_test_table");
+        assertThat(insert.getParameterCount()).isEqualTo(1);
+        assertThat(insert.getRowCount()).isEqualTo(1);
+        assertThat(insert.getError()).isNull();
+
+        QueryEvent query = events.get(events.size() - 1);
+        assertThat(query.getSql()).isEqualTo("select * from listener_test_table");
+        assertThat(query.getRowCount()).isEqualTo(2);
+        assertThat(query.getTotalNanos())
+                .isPositive()
+                .isEqualTo(query.getPrepareNanos() + query.getExecuteNanos() + query.getFetchNanos());
+    }
+
+    @Test
+    public void shouldReportBulkInserts() {
+        table.bulkInsert(Arrays.asList("a", "b", "c"))
+                .setField("name", name -> name)
+                .execute(connection);
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getBatchSize()).isEqualTo(3);
+        assertThat(events.get(0).getRowCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldReportErrors() {
+        assertThatThrownBy(() -> table.where("missing_column", 1).unordered().listStrings(connection, "name"))
+                .isInstanceOf(SQLException.class);
+
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getError()).isInstanceOf(SQLException.class);
+        assertThat(events.get(0).getRowCount()).isEqualTo(-1);
+        assertThat(events.get(0).getExecuteNanos()).isZero();
+    }
+
+    @Test
+    public void shouldNotBreakQueriesWhenListenerFails() {
+        QueryListener failingListener = event -> { throw new IllegalStateException("Listener failed"); };
+        QueryListeners.add(failingListener);
+        try {
+            table.insert().setField("name", "a").execute(connection);
+            assertThat(table.query().count(connection)).isEqualTo(1);
+        } finally {
+            QueryListeners.remove(failingListener);
+        }
+    }
+
+}
@@ -1,8 +1,8 @@
 package org.fluentjdbc;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
-import org.fluentjdbc.DatabaseTable.RowMapper;
 import org.fluentjdbc.h2.H2TestDatabase;
 import org.h2.jdbcx.JdbcDataSource;
 import org.junit.After;
@@ -10,9 +10,15 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class SynchronizeDataTest extends AbstractDatabaseTest {
 
@@ -26,8 +32,13 @@ public class SynchronizeDataTest extends AbstractDatabaseTest {
     private Connection clientConnection;
     private Connection serverConnection;
 
+    private static final String CREATE_WATERMARK_TABLE =
+            "create table sync_watermarks (table_name varchar(100) not null primary key, watermark ${DATETIME} not null)";
+
     private DatabaseTable table = new DatabaseTableWithTimestamps("demo_table");
 
+    private DatabaseTableSynchronizer.WatermarkStore watermarkStore = new DatabaseTableSynchronizer.TableWatermarkStore("sync_watermarks");
+
     @Before
     public void openConnection() throws SQLException {
         JdbcDataSource serverDataSource = new JdbcDataSource();
@@ -45,6 +56,7 @@ public class SynchronizeDataTest extends AbstractDatabaseTest {
 
         try(Statement stmt = clientConnection.createStatement()) {
             stmt.executeUpdate(preprocessCreateTable(CREATE_TABLE));
+            stmt.executeUpdate(preprocessCreateTable(CREATE_WATERMARK_TABLE));
         }
     }
 
@@ -65,11 +77,215 @@ public class SynchronizeDataTest extends AbstractDatabaseTest {
         assertThat(table.where("id", id).singleString(clientConnection, "name")).isEqualTo("some name");
     }
 
-    private void synchronize(Connection serverConnection, Connection clientConnection) throws SQLException {
-        List<String> names = table.unordered().list(serverConnection, row -> row.getString("name"));
-        for (String name : names) {
-            table.newSaveBuilder("id", null).setField("name", name).execute(clientConnection);
+    @Test
+    public void shouldOnlyCopyChangedRows() {
+        Instant start = Instant.now().minusSeconds(3600);
+        new DatabaseTableImpl("demo_table").bulkInsert(IntStream.range(0, 25).boxed().collect(Collectors.toList()))
+                .setField("name", i -> "name " + i)
+                .setField("updated_at", i -> start.plusSeconds(i))
+                .setField("created_at", i -> start)
+                .execute(serverConnection);
+        DatabaseTableSynchronizer synchronizer = new DatabaseTableSynchronizer(table, "id").chunkSize(10);
+        assertThat(synchronizer.synchronize(serverConnection, clientConnection, watermarkStore)).isEqualTo(25);
+        assertThat(table.query().count(clientConnection)).isEqualTo(25);
+
+        Number id = table.where("name", "name 7").singleLong(serverConnection, "id");
+        table.where("id", id).update().setField("name", "updated").execute(serverConnection);
+        table.insert().setField("name", "new").execute(serverConnection);
+
+        // The last row from the previous synchronization is read again together with the two changed rows
+        assertThat(synchronizer.synchronize(serverConnection, clientConnection, watermarkStore)).isEqualTo(3);
+        assertThat(table.query().count(clientConnection)).isEqualTo(26);
+        assertThat(table.where("id", id).singleString(clientConnection, "name")).isEqualTo("updated");
+        assertThat(table.where("name", "new").exists(clientConnection)).isTrue();
+    }
+
+    @Test
+    public void shouldNotSkipRowsWithSameTimestampAcrossChunks() {
+        Instant updatedAt = Instant.now();
+        DatabaseTable tableWithoutTimestamps = new DatabaseTableImpl("demo_table");
+        tableWithoutTimestamps.bulkInsert(IntStream.range(0, 7).boxed().collect(Collectors.toList()))
+                .setField("name", i -> "name " + i)
+                .setField("updated_at", i -> updatedAt)
+                .setField("created_at", i -> updatedAt)
+                .execute(serverConnection);
+
+        new DatabaseTableSynchronizer(table, "id").chunkSize(3).synchronize(serverConnection, clientConnection, watermarkStore);
+
+        assertThat(table.query().count(clientConnection)).isEqualTo(7);
+    }
+
+    @Test
+    public void shouldCatchLateRowsWithinOverlap() {
+        table.insert().setField("name", "first").execute(serverConnection);
+        DatabaseTableSynchronizer synchronizer = new DatabaseTableSynchronizer(table, "id").overlap(Duration.ofMinutes(1));
+        synchronizer.synchronize(serverConnection, clientConnection, watermarkStore);
+
+        Instant committedLate = Instant.now().minusSeconds(30);
+        new DatabaseTableImpl("demo_table").insert()
+                .setField("name", "late")
+                .setField("updated_at", committedLate)
+                .setField("created_at", committedLate)
+                .execute(serverConnection);
+
+        synchronizer.synchronize(serverConnection, clientConnection, watermarkStore);
+        assertThat(table.where("name", "late").exists(clientConnection)).isTrue();
+    }
+
+    @Test
+    public void shouldOnlyTransferDifferingRows() {
+        Instant now = Instant.now();
+        DatabaseTable tableWithoutTimestamps = new DatabaseTableImpl("demo_table");
+        for (Connection connection : new Connection[] { serverConnection, clientConnection }) {
+            tableWithoutTimestamps.bulkInsert(IntStream.range(1, 5001).boxed().collect(Collectors.toList()))
+                    .setField("id", i -> i)
+                    .setField("name", i -> "name " + i)
+                    .setField("updated_at", i -> now)
+                    .setField("created_at", i -> now)
+                    .execute(connection);
+        }
+        tableWithoutTimestamps.where("id", 17).update().setField("name", "changed").execute(serverConnection);
+        tableWithoutTimestamps.where("id", 3001).update().setField("name", "changed").execute(serverConnection);
+        tableWithoutTimestamps.where("id", 4000).delete(clientConnection);
+        tableWithoutTimestamps.where("id", 2500).delete(serverConnection);
+        tableWithoutTimestamps.insert()
+                .setField("id", 5001).setField("name", "new").setField("updated_at", now).setField("created_at", now)
+                .execute(serverConnection);
+
+        DatabaseTableDiff diff = new DatabaseTableDiff(tableWithoutTimestamps, "id");
+        DatabaseTableDiff.Result result = diff.synchronize(serverConnection, clientConnection);
+
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getInserted()).isEqualTo(2);
+        assertThat(result.getDeleted()).isEqualTo(1);
+        assertThat(result.getRangesCompared()).isLessThan(20);
+        assertThat(table.where("id", 3001).singleString(clientConnection, "name")).isEqualTo("changed");
+        assertThat(table.where("id", 5001).singleString(clientConnection, "name")).isEqualTo("new");
+        assertThat(table.where("id", 2500).exists(clientConnection)).isFalse();
+        assertThat(table.query().count(clientConnection)).isEqualTo(5000);
+
+        DatabaseTableDiff.Result secondResult = diff.synchronize(serverConnection, clientConnection);
+        assertThat(secondResult.getUpdated() + secondResult.getInserted() + secondResult.getDeleted()).isZero();
+        assertThat(secondResult.getRangesCompared()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldCopyRowsWithoutUpdatedAtInChunks() throws SQLException {
+        for (Connection connection : new Connection[] { serverConnection, clientConnection }) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate(preprocessCreateTable("create table nullable_sync_table (id integer primary key, name varchar(100) not null, updated_at ${DATETIME} null)"));
+            }
+        }
+        DatabaseTable nullableTable = new DatabaseTableImpl("nullable_sync_table");
+        Instant now = Instant.now();
+        nullableTable.bulkInsert(IntStream.range(1, 31).boxed().collect(Collectors.toList()))
+                .setField("id", i -> i)
+                .setField("name", i -> "name " + i)
+                .setField("updated_at", i -> i > 25 ? now.plusSeconds(i) : null)
+                .execute(serverConnection);
+
+        DatabaseTableSynchronizer synchronizer = new DatabaseTableSynchronizer(nullableTable, "id").chunkSize(10);
+        assertThat(synchronizer.synchronize(serverConnection, clientConnection, watermarkStore)).isEqualTo(30);
+        assertThat(nullableTable.query().count(clientConnection)).isEqualTo(30);
+        assertThat(watermarkStore.load(clientConnection, "nullable_sync_table")).isEqualTo(now.plusSeconds(30));
+
+        // Only the row at the watermark is read again, rows without updated_at are not
+        assertThat(synchronizer.synchronize(serverConnection, clientConnection, watermarkStore)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldUpdateExistingRowsAcrossDatabaseEngines() throws SQLException {
+        try (Connection hsqldbConnection = DriverManager.getConnection("jdbc:hsqldb:mem:" + getClass().getName(), "sa", null)) {
+            try (Statement stmt = serverConnection.createStatement()) {
+                stmt.executeUpdate("create table engine_sync_table (id bigint primary key, name varchar(100) not null, updated_at timestamp not null)");
+            }
+            try (Statement stmt = hsqldbConnection.createStatement()) {
+                stmt.executeUpdate("drop table engine_sync_table if exists");
+                stmt.executeUpdate("drop table sync_watermarks if exists");
+                stmt.executeUpdate("create table engine_sync_table (id integer primary key, name varchar(100) not null, updated_at timestamp not null)");
+                stmt.executeUpdate("create table sync_watermarks (table_name varchar(100) not null primary key, watermark timestamp not null)");
+            }
+            DatabaseTable engineTable = new DatabaseTableImpl("engine_sync_table");
+            Instant now = Instant.now();
+            for (Connection connection : new Connection[] { serverConnection, hsqldbConnection }) {
+                engineTable.bulkInsert(IntStream.range(1, 6).boxed().collect(Collectors.toList()))
+                        .setField("id", i -> i)
+                        .setField("name", i -> connection == serverConnection ? "server " + i : "client " + i)
+                        .setField("updated_at", i -> now)
+                        .execute(connection);
+            }
+
+            assertThat(new DatabaseTableSynchronizer(engineTable, "id").synchronize(serverConnection, hsqldbConnection, watermarkStore))
+                    .isEqualTo(5);
+            assertThat(engineTable.query().count(hsqldbConnection)).isEqualTo(5);
+            assertThat(engineTable.where("id", 3).singleString(hsqldbConnection, "name")).isEqualTo("server 3");
+        }
+    }
+
+    @Test
+    public void shouldDistinguishNullFromEmptyStringWhenComparingRows() throws SQLException {
+        for (Connection connection : new Connection[] { serverConnection, clientConnection }) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("create table diff_null_table (id integer primary key, comment varchar(100) null)");
+            }
         }
+        DatabaseTable diffTable = new DatabaseTableImpl("diff_null_table");
+        diffTable.insert().setField("id", 1).setField("comment", "").execute(serverConnection);
+        diffTable.insert().setField("id", 1).setField("comment", null).execute(clientConnection);
+
+        DatabaseTableDiff.Result result = new DatabaseTableDiff(diffTable, "id").synchronize(serverConnection, clientConnection);
+
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(diffTable.where("id", 1).singleString(clientConnection, "comment")).isEqualTo("");
+    }
+
+    @Test
+    public void shouldBindKeyRangesAsParameters() {
+        table.insert().setField("id", 1).setField("name", "a").execute(serverConnection);
+        List<QueryEvent> events = new ArrayList<>();
+        QueryListener listener = events::add;
+        QueryListeners.add(listener);
+        try {
+            new DatabaseTableDiff(table, "id").synchronize(serverConnection, clientConnection);
+        } finally {
+            QueryListeners.remove(listener);
+        }
+        List<QueryEvent> checksumQueries = events.stream()
+                .filter(event -> event.getSql().contains("count(*)"))
+                .collect(Collectors.toList());
+        assertThat(checksumQueries).isNotEmpty();
+        for (QueryEvent event : checksumQueries) {
+            assertThat(event.getSql()).contains("id >= ? and id < ?");
+            assertThat(event.getParameters()).containsExactly(1L, 1L, 1L, 2L);
+        }
+    }
+
+    @Test
+    public void shouldRejectNonNumericKeysWhenComparingRows() throws SQLException {
+        for (Connection connection : new Connection[] { serverConnection, clientConnection }) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate("create table diff_text_key_table (code varchar(100) primary key, name varchar(100) null)");
+            }
+        }
+        DatabaseTable diffTable = new DatabaseTableImpl("diff_text_key_table");
+        diffTable.insert().setField("code", "abc").setField("name", "a").execute(serverConnection);
+
+        assertThatThrownBy(() -> new DatabaseTableDiff(diffTable, "code").synchronize(serverConnection, clientConnection))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("must be an integer type");
+    }
+
+    @Test
+    public void shouldUseHashFunctionOfTargetDatabase() throws SQLException {
+        try (Connection hsqldbConnection = DriverManager.getConnection("jdbc:hsqldb:mem:" + getClass().getName(), "sa", null)) {
+            assertThatThrownBy(() -> new DatabaseTableDiff(table, "id").synchronize(serverConnection, hsqldbConnection))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("No known row hash function for HSQL");
+        }
+    }
+
+    private void synchronize(Connection serverConnection, Connection clientConnection) {
+        new DatabaseTableSynchronizer(table, "id").synchronize(serverConnection, clientConnection, watermarkStore);
     }
 
 }
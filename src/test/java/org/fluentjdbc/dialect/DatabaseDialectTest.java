@@ -0,0 +1,149 @@
+package org.fluentjdbc.dialect;
+
+import org.fluentjdbc.DatabaseResult;
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.DbContext;
+import org.fluentjdbc.DbContextConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DatabaseDialectTest {
+
+    private static final String H2_URL = "jdbc:h2:mem:dialecttest;DB_CLOSE_DELAY=-1";
+    private static final List<String> URLS = Arrays.asList(H2_URL, "jdbc:hsqldb:mem:dialecttest", "jdbc:sqlite::memory:");
+
+    @Test
+    public void shouldDetectDialectFromProductName() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(H2_URL)) {
+            assertThat(DatabaseDialects.detect(connection)).isInstanceOf(H2Dialect.class);
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:dialecttest")) {
+            assertThat(DatabaseDialects.detect(connection)).isInstanceOf(HsqldbDialect.class);
+        }
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            assertThat(DatabaseDialects.detect(connection)).isInstanceOf(SqliteDialect.class);
+        }
+        assertThat(DatabaseDialects.forProductName("Oracle").createSelectSql("*", " from t", 10))
+                .isEqualTo("select * from t fetch first 10 rows only");
+        assertThat(DatabaseDialects.forProductName("Microsoft SQL Server").createSelectSql("*", " from t", 10))
+                .isEqualTo("select top 10 * from t");
+    }
+
+    @Test
+    public void shouldLimitRows() throws SQLException {
+        for (String url : URLS) {
+            try (Connection connection = DriverManager.getConnection(url)) {
+                createTable(connection);
+                DatabaseTable table = new DatabaseTableImpl("dialect_test");
+                for (int i = 0; i < 5; i++) {
+                    table.insert().setField("id", i).setField("name", "row " + i).execute(connection);
+                }
+                DatabaseDialect dialect = DatabaseDialects.detect(connection);
+                String query = dialect.createSelectSql("name", " from dialect_test order by id", 2);
+                try (Statement statement = connection.createStatement()) {
+                    try (ResultSet rs = statement.executeQuery(query)) {
+                        int rows = 0;
+                        while (rs.next()) {
+                            rows++;
+                        }
+                        assertThat(rows).as(query).isEqualTo(2);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldDetectDialectOncePerDataSource() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(H2_URL)) {
+            createTable(connection);
+        }
+        AtomicInteger metadataLookups = new AtomicInteger();
+        JdbcDataSource dataSource = new JdbcDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return countMetadataLookups(super.getConnection(), metadataLookups);
+            }
+        };
+        dataSource.setUrl(H2_URL);
+        DbContext context = new DbContext();
+        for (int i = 0; i < 3; i++) {
+            try (DbContextConnection ignored = context.startConnection(dataSource)) {
+                context.table("dialect_test").query().limit(1).list(row -> row.getString("name"));
+                context.table("dialect_test").insert().setField("id", i).setField("name", "row " + i).execute();
+            }
+        }
+        assertThat(metadataLookups.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDetectDialectOncePerPlainConnection() throws SQLException {
+        AtomicInteger metadataLookups = new AtomicInteger();
+        try (Connection connection = countMetadataLookups(DriverManager.getConnection(H2_URL), metadataLookups)) {
+            createTable(connection);
+            DatabaseTable table = new DatabaseTableImpl("dialect_test");
+            for (int i = 0; i < 3; i++) {
+                table.whereIn("id", Arrays.asList(1, 2)).orderBy("id").limit(1).listStrings(connection, "name");
+                table.insert().setField("id", i).setField("name", "row " + i).execute(connection);
+            }
+        }
+        assertThat(metadataLookups.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldRejectTableLookupWhenDriverDoesNotReportTableNames() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(H2_URL)) {
+            createTable(connection);
+        }
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setUrl(H2_URL);
+        DbContext context = new DbContext().dialect(new H2Dialect() {
+            @Override
+            public boolean supportsResultSetTableNames() {
+                return false;
+            }
+        });
+        try (DbContextConnection ignored = context.startConnection(dataSource);
+             Statement statement = context.getThreadConnection().createStatement();
+             DatabaseResult result = new DatabaseResult(statement.executeQuery("select * from dialect_test"))) {
+            assertThatThrownBy(() -> result.table("dialect_test"))
+                    .isInstanceOf(UnsupportedOperationException.class)
+                    .hasMessageContaining("use DatabaseJoinedQueryBuilder");
+        }
+    }
+
+    private static Connection countMetadataLookups(Connection connection, AtomicInteger metadataLookups) {
+        return (Connection) Proxy.newProxyInstance(DatabaseDialectTest.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            if (method.getName().equals("getMetaData")) {
+                metadataLookups.incrementAndGet();
+            }
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static void createTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("drop table if exists dialect_test");
+            statement.executeUpdate("create table dialect_test (id integer primary key, name varchar(50))");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.fluentjdbc.load;
+
+import org.fluentjdbc.ConnectionSupplier;
+import org.fluentjdbc.opt.metrics.LatencyHistogram;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A minimal connection pool with a fixed number of connections, which records how long callers
+ * wait for a connection. Closing a connection returns it to the pool.
+ */
+public class BoundedConnectionPool implements ConnectionSupplier, AutoCloseable {
+
+    private final BlockingQueue<Connection> idleConnections;
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final long timeoutMillis;
+
+    public BoundedConnectionPool(ConnectionSupplier physicalConnections, int size, long timeoutMillis) throws SQLException {
+        this.idleConnections = new ArrayBlockingQueue<>(size);
+        this.timeoutMillis = timeoutMillis;
+        for (int i = 0; i < size; i++) {
+            idleConnections.add(physicalConnections.getConnection());
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long startTime = System.nanoTime();
+        Connection connection;
+        try {
+            connection = idleConnections.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for connection", e);
+        }
+        waitTime.record(System.nanoTime() - startTime);
+        if (connection == null) {
+            throw new SQLTimeoutException("No connection available within " + timeoutMillis + "ms");
+        }
+        return pooled(connection);
+    }
+
+    private Connection pooled(Connection connection) {
+        boolean[] closed = { false };
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed[0]) {
+                        closed[0] = true;
+                        if (!connection.getAutoCommit()) {
+                            connection.rollback();
+                            connection.setAutoCommit(true);
+                        }
+                        idleConnections.add(connection);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed[0];
+                default:
+                    if (closed[0]) {
+                        throw new SQLException("Connection is closed");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        });
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (Connection connection : idleConnections) {
+            connection.close();
+        }
+    }
+}
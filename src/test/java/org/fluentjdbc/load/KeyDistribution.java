@@ -0,0 +1,43 @@
+package org.fluentjdbc.load;
+
+import java.util.Random;
+
+/**
+ * Chooses which row each operation in a load test reads or writes, from 1 to <code>keyCount</code>
+ */
+public interface KeyDistribution {
+
+    long nextKey(Random random);
+
+    static KeyDistribution uniform(long keyCount) {
+        return random -> 1 + (long) (random.nextDouble() * keyCount);
+    }
+
+    /**
+     * A few keys are much more popular than the rest, like real workloads where some customers
+     * or products are hot. With an exponent of 1, the most popular key is chosen twice as often as
+     * the second and three times as often as the third.
+     */
+    static KeyDistribution zipfian(int keyCount, double exponent) {
+        double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        double total = sum;
+        return random -> {
+            double value = random.nextDouble() * total;
+            int low = 0, high = keyCount - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cumulative[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low + 1;
+        };
+    }
+}
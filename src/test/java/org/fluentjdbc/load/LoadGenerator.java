@@ -0,0 +1,271 @@
+package org.fluentjdbc.load;
+
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.DbContext;
+import org.fluentjdbc.DbContextConnection;
+import org.fluentjdbc.DbTableContext;
+import org.fluentjdbc.opt.metrics.LatencyHistogram;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Runs a mixed read/write workload against a table through {@link DbContext} from many
+ * threads at once, sharing a {@link BoundedConnectionPool} which is smaller than the number
+ * of threads, and reports throughput, latency percentiles and time spent waiting for a
+ * connection. Each thread uses its own {@link Random} seeded from {@link #seed(long)}, so
+ * the sequence of operations is the same for each run.
+ *
+ * <pre>
+ * java org.fluentjdbc.load.LoadGenerator threads=64 poolSize=8 readRatio=0.9 distribution=zipfian virtualThreads=true
+ * </pre>
+ */
+public class LoadGenerator {
+
+    public static class Result {
+        private final long elapsedNanos;
+        private final long errors;
+        private final LatencyHistogram.Snapshot reads;
+        private final LatencyHistogram.Snapshot writes;
+        private final LatencyHistogram.Snapshot connectionWait;
+
+        Result(long elapsedNanos, long errors, LatencyHistogram.Snapshot reads, LatencyHistogram.Snapshot writes, LatencyHistogram.Snapshot connectionWait) {
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+            this.reads = reads;
+            this.writes = writes;
+            this.connectionWait = connectionWait;
+        }
+
+        public long getOperations() {
+            return reads.getCount() + writes.getCount();
+        }
+
+        public double getOperationsPerSecond() {
+            return elapsedNanos > 0 ? getOperations() * 1_000_000_000.0 / elapsedNanos : 0;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public LatencyHistogram.Snapshot getReads() {
+            return reads;
+        }
+
+        public LatencyHistogram.Snapshot getWrites() {
+            return writes;
+        }
+
+        public LatencyHistogram.Snapshot getConnectionWait() {
+            return connectionWait;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d operations in %d ms (%.0f/s), %d errors%n", getOperations(), elapsedNanos / 1_000_000, getOperationsPerSecond(), errors)
+                    + format("reads", reads) + format("writes", writes) + format("connection wait", connectionWait);
+        }
+
+        private static String format(String name, LatencyHistogram.Snapshot snapshot) {
+            return String.format("%-16s count=%-8d p50=%6dus p99=%6dus p999=%6dus max=%6dus%n", name, snapshot.getCount(),
+                    snapshot.getPercentileNanos(50) / 1000, snapshot.getPercentileNanos(99) / 1000,
+                    snapshot.getPercentileNanos(99.9) / 1000, snapshot.getMaxNanos() / 1000);
+        }
+    }
+
+    private final String jdbcUrl;
+    private int threads = 16;
+    private int poolSize = 4;
+    private int operationsPerThread = 1000;
+    private int keyCount = 10_000;
+    private double readRatio = 0.8;
+    private KeyDistribution distribution;
+    private long thinkTimeMillis = 0;
+    private boolean virtualThreads = false;
+    private long seed = 0;
+
+    public LoadGenerator(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+        this.distribution = KeyDistribution.uniform(keyCount);
+    }
+
+    public LoadGenerator threads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public LoadGenerator poolSize(int poolSize) {
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public LoadGenerator operationsPerThread(int operationsPerThread) {
+        this.operationsPerThread = operationsPerThread;
+        return this;
+    }
+
+    /**
+     * The number of rows in the table. Call before {@link #distribution(KeyDistribution)}
+     * when using a custom distribution.
+     */
+    public LoadGenerator keyCount(int keyCount) {
+        this.keyCount = keyCount;
+        this.distribution = KeyDistribution.uniform(keyCount);
+        return this;
+    }
+
+    /**
+     * The fraction of operations which are reads, between 0 and 1
+     */
+    public LoadGenerator readRatio(double readRatio) {
+        this.readRatio = readRatio;
+        return this;
+    }
+
+    public LoadGenerator distribution(KeyDistribution distribution) {
+        this.distribution = distribution;
+        return this;
+    }
+
+    /**
+     * The average pause between operations on each thread. The actual pause is exponentially
+     * distributed, like the time between requests from independent users.
+     */
+    public LoadGenerator thinkTimeMillis(long thinkTimeMillis) {
+        this.thinkTimeMillis = thinkTimeMillis;
+        return this;
+    }
+
+    /**
+     * Run the workload on virtual threads. Requires Java 21 or later.
+     */
+    public LoadGenerator virtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public LoadGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public Result run() throws SQLException, InterruptedException {
+        createTable();
+        try (BoundedConnectionPool pool = new BoundedConnectionPool(() -> DriverManager.getConnection(jdbcUrl), poolSize, 30_000)) {
+            DbContext dbContext = new DbContext();
+            DbTableContext table = dbContext.table("load_test");
+            LatencyHistogram reads = new LatencyHistogram();
+            LatencyHistogram writes = new LatencyHistogram();
+            AtomicLong errors = new AtomicLong();
+
+            ThreadFactory threadFactory = virtualThreads ? virtualThreadFactory() : Thread::new;
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Random random = new Random(seed + i);
+                workers.add(threadFactory.newThread(() -> {
+                    for (int j = 0; j < operationsPerThread; j++) {
+                        long key = distribution.nextKey(random);
+                        boolean read = random.nextDouble() < readRatio;
+                        long startTime = System.nanoTime();
+                        try (DbContextConnection ignored = dbContext.startConnection(pool)) {
+                            if (read) {
+                                table.where("id", key).singleString("name");
+                            } else {
+                                table.where("id", key).update().setField("name", "value " + random.nextInt()).execute();
+                            }
+                            (read ? reads : writes).record(System.nanoTime() - startTime);
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                        thinkTime(random);
+                    }
+                }));
+            }
+
+            long startTime = System.nanoTime();
+            for (Thread worker : workers) {
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            return new Result(System.nanoTime() - startTime, errors.get(), reads.snapshot(), writes.snapshot(), pool.getWaitTime().snapshot());
+        }
+    }
+
+    private void thinkTime(Random random) {
+        if (thinkTimeMillis > 0) {
+            try {
+                Thread.sleep((long) (-Math.log(1 - random.nextDouble()) * thinkTimeMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void createTable() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(jdbcUrl)) {
+            try (Statement statement = connection.createStatement()) {
+                try {
+                    statement.executeUpdate("drop table load_test");
+                } catch (SQLException ignored) {
+                }
+                statement.executeUpdate("create table load_test (id integer primary key, name varchar(50) not null)");
+            }
+            new DatabaseTableImpl("load_test")
+                    .bulkInsert(LongStream.rangeClosed(1, keyCount).boxed().collect(Collectors.toList()))
+                    .setField("id", id -> id)
+                    .setField("name", id -> "value " + id)
+                    .execute(connection);
+        }
+    }
+
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later", e);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name=value, was " + arg);
+            }
+            options.put(parts[0], parts[1]);
+        }
+        int keyCount = Integer.parseInt(options.getOrDefault("keyCount", "10000"));
+        String distribution = options.getOrDefault("distribution", "uniform");
+        LoadGenerator generator = new LoadGenerator(options.getOrDefault("url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1"))
+                .threads(Integer.parseInt(options.getOrDefault("threads", "16")))
+                .poolSize(Integer.parseInt(options.getOrDefault("poolSize", "4")))
+                .operationsPerThread(Integer.parseInt(options.getOrDefault("operations", "1000")))
+                .readRatio(Double.parseDouble(options.getOrDefault("readRatio", "0.8")))
+                .thinkTimeMillis(Long.parseLong(options.getOrDefault("thinkTime", "0")))
+                .virtualThreads(Boolean.parseBoolean(options.getOrDefault("virtualThreads", "false")))
+                .seed(Long.parseLong(options.getOrDefault("seed", "0")))
+                .keyCount(keyCount);
+        if (distribution.equals("zipfian")) {
+            generator.distribution(KeyDistribution.zipfian(keyCount, Double.parseDouble(options.getOrDefault("zipfExponent", "1.0"))));
+        } else if (!distribution.equals("uniform")) {
+            throw new IllegalArgumentException("Unknown distribution " + distribution);
+        }
+        System.out.print(generator.run());
+    }
+}
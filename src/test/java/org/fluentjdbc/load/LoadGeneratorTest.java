@@ -0,0 +1,53 @@
+package org.fluentjdbc.load;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadGeneratorTest {
+
+    @Test
+    public void shouldRunMixedWorkloadWithContendedPool() throws Exception {
+        LoadGenerator.Result result = new LoadGenerator("jdbc:h2:mem:loadgeneratortest;DB_CLOSE_DELAY=-1")
+                .threads(8)
+                .poolSize(2)
+                .operationsPerThread(50)
+                .keyCount(100)
+                .distribution(KeyDistribution.zipfian(100, 1.0))
+                .readRatio(0.75)
+                .run();
+
+        assertThat(result.getErrors()).isZero();
+        assertThat(result.getOperations()).isEqualTo(8 * 50);
+        assertThat(result.getReads().getCount()).isBetween(250L, 350L);
+        assertThat(result.getConnectionWait().getCount()).isEqualTo(8 * 50);
+        assertThat(result.getOperationsPerSecond()).isPositive();
+    }
+
+    @Test
+    public void shouldRunOnHsqldb() throws Exception {
+        LoadGenerator.Result result = new LoadGenerator("jdbc:hsqldb:mem:loadgeneratortest")
+                .threads(4)
+                .poolSize(2)
+                .operationsPerThread(25)
+                .keyCount(50)
+                .run();
+        assertThat(result.getErrors()).isZero();
+        assertThat(result.getOperations()).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldFavorLowKeysWithZipfianDistribution() {
+        KeyDistribution distribution = KeyDistribution.zipfian(1000, 1.0);
+        Random random = new Random(1);
+        int[] counts = new int[1001];
+        for (int i = 0; i < 10_000; i++) {
+            long key = distribution.nextKey(random);
+            assertThat(key).isBetween(1L, 1000L);
+            counts[(int) key]++;
+        }
+        assertThat(counts[1]).isGreaterThan(counts[2]).isGreaterThan(counts[10] * 3);
+    }
+}
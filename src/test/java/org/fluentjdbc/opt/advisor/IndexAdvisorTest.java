@@ -0,0 +1,92 @@
+package org.fluentjdbc.opt.advisor;
+
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.After;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class IndexAdvisorTest {
+
+    private final DatabaseTable table = new DatabaseTableImpl("advisor_test_table");
+
+    private final IndexAdvisor advisor = new IndexAdvisor().install();
+
+    @After
+    public void uninstall() {
+        advisor.uninstall();
+    }
+
+    @Test
+    public void shouldFindMissingAndUnusedIndexesOnH2() throws SQLException {
+        try (Connection connection = H2TestDatabase.createConnection()) {
+            shouldFindMissingAndUnusedIndexes(connection);
+        }
+    }
+
+    @Test
+    public void shouldFindMissingAndUnusedIndexesOnHsqldb() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:hsqldb:mem:advisor", "SA", "")) {
+            shouldFindMissingAndUnusedIndexes(connection);
+        }
+    }
+
+    private void shouldFindMissingAndUnusedIndexes(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("drop table if exists advisor_test_table");
+            stmt.executeUpdate("create table advisor_test_table (id integer primary key, code integer, name varchar(50), created_at timestamp)");
+            stmt.executeUpdate("create index advisor_code_idx on advisor_test_table (code)");
+            stmt.executeUpdate("create index advisor_created_idx on advisor_test_table (created_at)");
+        }
+        table.where("code", 12).unordered().listStrings(connection, "name");
+        for (int i = 0; i < 3; i++) {
+            table.where("name", "name " + i).orderBy("code").listStrings(connection, "name");
+        }
+        table.where("name", "name").update().setField("code", 13).execute(connection);
+        table.where("id", 1).delete(connection);
+        table.whereIn("code", Arrays.asList(1, 2)).where("name", "x").unordered().listStrings(connection, "name");
+
+        List<IndexAdvice> advice = advisor.analyze(connection);
+        assertThat(advice).extracting(IndexAdvice::getType)
+                .containsExactlyInAnyOrder(IndexAdvice.Type.MISSING_INDEX, IndexAdvice.Type.MISSING_INDEX, IndexAdvice.Type.UNUSED_INDEX);
+
+        IndexAdvice missingForSelect = advice.stream().filter(a -> a.getColumns().size() == 2).findFirst().get();
+        assertThat(missingForSelect.getTableName()).isEqualTo("advisor_test_table");
+        assertThat(missingForSelect.getColumns()).containsExactly("name", "code");
+        assertThat(missingForSelect.getQueries()).containsOnly(entry("select * from advisor_test_table where name = ? order by code", 3L));
+
+        IndexAdvice missingForUpdate = advice.stream()
+                .filter(a -> a.getType() == IndexAdvice.Type.MISSING_INDEX && a.getColumns().size() == 1).findFirst().get();
+        assertThat(missingForUpdate.getColumns()).containsExactly("name");
+        assertThat(missingForUpdate.getQueries()).containsOnlyKeys("update advisor_test_table set code = ? where name = ?");
+
+        IndexAdvice unused = advice.stream().filter(a -> a.getType() == IndexAdvice.Type.UNUSED_INDEX).findFirst().get();
+        assertThat(unused.getIndexName()).isEqualToIgnoringCase("advisor_created_idx");
+
+        assertThatThrownBy(() -> advisor.assertNoMissingIndexes(connection))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("where name = ?");
+    }
+
+    @Test
+    public void shouldParseGeneratedStatements() {
+        IndexAdvisor.QueryShape shape = IndexAdvisor.parse("select top 10 * from orders where customer_id IN (?,?) AND (status = ? or status = ?) order by created_at desc, id");
+        assertThat(shape.tableName).isEqualTo("orders");
+        assertThat(shape.filterColumns).containsExactly("customer_id", "status");
+        assertThat(shape.sortColumns).containsExactly("created_at", "id");
+
+        assertThat(IndexAdvisor.parse("select * from orders o inner join customers c on o.customer_id = c.id").tableName).isNull();
+        assertThat(IndexAdvisor.parse("insert into orders (id) values (?)").tableName).isNull();
+    }
+}
@@ -0,0 +1,94 @@
+package org.fluentjdbc.opt.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.fluentjdbc.DbContext;
+import org.fluentjdbc.DbContextConnection;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.DbTableContext;
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.fluentjdbc.util.SqlFingerprint;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FlightRecorderListenerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final FlightRecorderListener listener = FlightRecorderListener.install();
+
+    @After
+    public void uninstall() {
+        listener.uninstall();
+    }
+
+    @Test
+    public void shouldRecordQueryAndConnectionEvents() throws Exception {
+        DbContext context = new DbContext();
+        DbTableContext table = context.table("jfr_test_table");
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("fluentjdbc.Query");
+            recording.enable("fluentjdbc.BulkInsert");
+            recording.enable("fluentjdbc.ConnectionAcquire");
+            recording.start();
+            try (DbContextConnection ignored = context.startConnection(H2TestDatabase::createConnection)) {
+                try (Statement stmt = context.getThreadConnection().createStatement()) {
+                    stmt.executeUpdate("drop table if exists jfr_test_table");
+                    stmt.executeUpdate("create table jfr_test_table (id integer primary key, name varchar(50))");
+                }
+                new DatabaseTableImpl("jfr_test_table").bulkInsert(IntStream.range(0, 10).boxed().collect(Collectors.toList()))
+                        .setField("id", i -> i)
+                        .setField("name", i -> "name " + i)
+                        .execute(context.getThreadConnection());
+                table.whereIn("id", Arrays.asList(1, 2, 3)).unordered().listStrings("name");
+            }
+            recording.stop();
+            events = readEvents(recording);
+        }
+
+        RecordedEvent acquire = findEvent(events, "fluentjdbc.ConnectionAcquire");
+        assertThat(acquire.getDuration("acquireTime").toNanos()).isPositive();
+        assertThat(acquire.getDuration().toNanos()).isPositive();
+
+        RecordedEvent bulkInsert = findEvent(events, "fluentjdbc.BulkInsert");
+        assertThat(bulkInsert.getString("table")).isEqualTo("jfr_test_table");
+        assertThat(bulkInsert.getInt("batchSize")).isEqualTo(10);
+
+        RecordedEvent query = events.stream()
+                .filter(e -> e.getEventType().getName().equals("fluentjdbc.Query"))
+                .filter(e -> e.getString("sql").startsWith("select"))
+                .findFirst().get();
+        assertThat(query.getString("fingerprint")).isEqualTo(SqlFingerprint.of(query.getString("sql")));
+        assertThat(query.getInt("rows")).isEqualTo(3);
+        assertThat(query.getDuration("totalTime")).isGreaterThanOrEqualTo(query.getDuration("executeTime"));
+        assertThat(query.getDuration().toNanos()).isPositive();
+        assertThat(bulkInsert.getDuration().toNanos()).isPositive();
+    }
+
+    private List<RecordedEvent> readEvents(Recording recording) throws IOException {
+        Path file = temporaryFolder.getRoot().toPath().resolve("test.jfr");
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static RecordedEvent findEvent(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).findFirst()
+                .orElseThrow(() -> new AssertionError("No " + name + " in " + events));
+    }
+}
@@ -0,0 +1,96 @@
+package org.fluentjdbc.opt.metrics;
+
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.fluentjdbc.util.SqlFingerprint;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class QueryMetricsTest {
+
+    private final Connection connection;
+
+    private final DatabaseTable table = new DatabaseTableImpl("metrics_test_table");
+
+    private final QueryMetrics metrics = new QueryMetrics();
+
+    public QueryMetricsTest() throws SQLException {
+        connection = H2TestDatabase.createConnection();
+    }
+
+    @Before
+    public void createTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("drop table if exists metrics_test_table");
+            stmt.executeUpdate("create table metrics_test_table (id integer primary key, name varchar(50) not null)");
+        }
+        metrics.install();
+    }
+
+    @After
+    public void uninstall() {
+        metrics.uninstall();
+    }
+
+    @Test
+    public void shouldCollapseLiteralsAndInLists() {
+        assertThat(SqlFingerprint.of("select *  from t where id in (?, ?,?) and name = 'it''s' and n > 42"))
+                .isEqualTo("select * from t where id in (?) and name = ? and n > ?");
+        assertThat(SqlFingerprint.of("select * from t where id in (?)"))
+                .isEqualTo(SqlFingerprint.of("select * from t where id IN (?,?,?,?)"));
+        assertThat(SqlFingerprint.of("select * from t2")).isEqualTo("select * from t2");
+    }
+
+    @Test
+    public void shouldCalculatePercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(500_500);
+        assertThat(snapshot.getPercentileNanos(50)).isBetween(500_000L, 500_000L * 9 / 8);
+        assertThat(snapshot.getPercentileNanos(99)).isBetween(990_000L, 990_000L * 9 / 8);
+        assertThat(snapshot.getMaxNanos()).isBetween(1_000_000L, 1_000_000L * 9 / 8);
+
+        for (long value : Arrays.asList(0L, 7L, 8L, 1000L, Long.MAX_VALUE)) {
+            assertThat(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(value))).isGreaterThanOrEqualTo(value);
+        }
+    }
+
+    @Test
+    public void shouldRecordQueriesByShape() {
+        table.insert().setField("id", 1).setField("name", "one").execute(connection);
+        table.insert().setField("id", 2).setField("name", "two").execute(connection);
+        table.whereIn("id", Arrays.asList(1, 2)).unordered().listStrings(connection, "name");
+        table.whereIn("id", Arrays.asList(1, 2, 3)).unordered().listStrings(connection, "name");
+        assertThatThrownBy(() -> table.insert().setField("id", 1).setField("name", "duplicate").execute(connection))
+                .isInstanceOf(SQLException.class);
+
+        List<QueryStatistics> statistics = metrics.getStatistics();
+        QueryStatistics insert = statistics.stream().filter(s -> s.getFingerprint().startsWith("insert into metrics_test_table")).findFirst().get();
+        assertThat(insert.getCount()).isEqualTo(3);
+        assertThat(insert.getErrors()).isEqualTo(1);
+        assertThat(insert.getRows()).isEqualTo(2);
+        QueryStatistics select = statistics.stream().filter(s -> s.getFingerprint().startsWith("select")).findFirst().get();
+        assertThat(select.getCount()).isEqualTo(2);
+        assertThat(select.getRows()).isEqualTo(4);
+        assertThat(select.getMaxMicros()).isGreaterThanOrEqualTo(select.getP50Micros());
+        assertThat(metrics.getTotalErrors()).isEqualTo(1);
+
+        metrics.reset();
+        assertThat(metrics.getQueries()).isEmpty();
+    }
+}
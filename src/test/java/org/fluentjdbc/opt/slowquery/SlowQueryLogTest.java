@@ -0,0 +1,190 @@
+package org.fluentjdbc.opt.slowquery;
+
+import org.fluentjdbc.DatabaseTable;
+import org.fluentjdbc.DatabaseTableImpl;
+import org.fluentjdbc.h2.H2TestDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SlowQueryLogTest {
+
+    private final Connection connection;
+
+    private final DatabaseTable table = new DatabaseTableImpl("slow_query_test_table");
+
+    private SlowQueryLog slowQueryLog;
+
+    public SlowQueryLogTest() throws SQLException {
+        connection = H2TestDatabase.createConnection();
+    }
+
+    @Before
+    public void createTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("drop table if exists slow_query_test_table");
+            stmt.executeUpdate("create table slow_query_test_table (id integer primary key, name varchar(50) not null)");
+        }
+    }
+
+    @After
+    public void close() {
+        if (slowQueryLog != null) {
+            slowQueryLog.close();
+        }
+    }
+
+    @Test
+    public void shouldRecordSlowQueriesWithPlan() {
+        slowQueryLog = new SlowQueryLog(H2TestDatabase::createConnection, Duration.ZERO)
+                .executor(Runnable::run)
+                .install();
+        table.insert().setField("id", 1).setField("name", "secret").execute(connection);
+        table.where("name", "secret").unordered().listStrings(connection, "name");
+
+        List<SlowQuery> entries = slowQueryLog.getEntries();
+        assertThat(entries).extracting(SlowQuery::getSql)
+                .containsExactly("insert into slow_query_test_table (id,name) values (?,?)",
+                        "select * from slow_query_test_table where name = ?");
+        SlowQuery select = entries.get(1);
+        assertThat(select.getParameterTypes()).containsExactly(String.class.getName());
+        assertThat(select.getParameterValues()).isNull();
+        assertThat(select.getRowCount()).isEqualTo(1);
+        assertThat(select.getPlan()).containsIgnoringCase("slow_query_test_table");
+
+        String json = slowQueryLog.toJson();
+        assertThat(json).startsWith("[{").endsWith("}]")
+                .contains("\"sql\":\"select * from slow_query_test_table where name = ?\"")
+                .doesNotContain("\"secret\"");
+    }
+
+    @Test
+    public void shouldIncludeParameterValuesWhenConfigured() {
+        slowQueryLog = new SlowQueryLog(H2TestDatabase::createConnection, Duration.ZERO)
+                .executor(Runnable::run)
+                .includeParameterValues(true)
+                .install();
+        table.insert().setField("id", 1).setField("name", "quote \" and\nnewline").execute(connection);
+
+        assertThat(slowQueryLog.getEntries().get(0).getParameterValues()).containsExactly("1", "quote \" and\nnewline");
+        assertThat(slowQueryLog.toJson()).contains("\"parameterValues\":[\"1\",\"quote \\\" and\\nnewline\"]");
+    }
+
+    @Test
+    public void shouldKeepLatestQueriesAboveThreshold() {
+        slowQueryLog = new SlowQueryLog(H2TestDatabase::createConnection, Duration.ZERO)
+                .executor(runnable -> {})
+                .capacity(3)
+                .install();
+        for (int i = 0; i < 5; i++) {
+            table.where("id", i).unordered().listStrings(connection, "name");
+        }
+        assertThat(slowQueryLog.getEntries()).hasSize(3);
+
+        SlowQueryLog ignoreAll = new SlowQueryLog(H2TestDatabase::createConnection, Duration.ofHours(1)).install();
+        try {
+            table.where("id", 1).unordered().listStrings(connection, "name");
+            assertThat(ignoreAll.getEntries()).isEmpty();
+        } finally {
+            ignoreAll.close();
+        }
+    }
+
+    @Test
+    public void shouldStopExplainThreadWhenClosed() throws InterruptedException {
+        slowQueryLog = new SlowQueryLog(H2TestDatabase::createConnection, Duration.ZERO).install();
+        table.where("id", 1).unordered().listStrings(connection, "name");
+        assertThat(explainThreads()).isNotEmpty();
+
+        slowQueryLog.close();
+        for (Thread thread : explainThreads()) {
+            thread.join(1000);
+        }
+        assertThat(explainThreads()).isEmpty();
+    }
+
+    private static List<Thread> explainThreads() {
+        List<Thread> result = new ArrayList<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("fluent-jdbc-explain") && thread.isAlive()) {
+                result.add(thread);
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void shouldExplainOnHsqldb() throws SQLException {
+        String url = "jdbc:hsqldb:mem:slowquery";
+        try (Connection hsqlConnection = DriverManager.getConnection(url, "SA", "")) {
+            try (Statement stmt = hsqlConnection.createStatement()) {
+                stmt.executeUpdate("create table slow_query_test_table (id integer primary key, name varchar(50) not null)");
+            }
+            slowQueryLog = new SlowQueryLog(() -> DriverManager.getConnection(url, "SA", ""), Duration.ZERO)
+                    .executor(Runnable::run)
+                    .install();
+            table.where("id", 1).unordered().listStrings(hsqlConnection, "name");
+            assertThat(slowQueryLog.getEntries().get(0).getPlan()).containsIgnoringCase("slow_query_test_table");
+        }
+    }
+
+    @Test
+    public void shouldExplainWithParametersBoundByDialect() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("drop table if exists slow_query_binding_table");
+            stmt.executeUpdate("create table slow_query_binding_table (id integer primary key, created_at timestamp, valid_from date, kind varchar(20))");
+        }
+        List<String> bindMethods = new ArrayList<>();
+        slowQueryLog = new SlowQueryLog(() -> recordBindMethods(H2TestDatabase.createConnection(), bindMethods), Duration.ZERO)
+                .executor(Runnable::run)
+                .install();
+        new DatabaseTableImpl("slow_query_binding_table")
+                .where("created_at", Instant.now())
+                .where("valid_from", LocalDate.now())
+                .where("kind", TimeUnit.SECONDS)
+                .unordered()
+                .listStrings(connection, "kind");
+        assertThat(slowQueryLog.getEntries().get(0).getPlan()).containsIgnoringCase("slow_query_binding_table");
+        assertThat(bindMethods).containsExactly("setTimestamp", "setDate", "setString");
+    }
+
+    private static Connection recordBindMethods(Connection connection, List<String> bindMethods) {
+        return (Connection) Proxy.newProxyInstance(SlowQueryLogTest.class.getClassLoader(), new Class<?>[] { Connection.class }, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (!method.getName().equals("prepareStatement")) {
+                return result;
+            }
+            return Proxy.newProxyInstance(SlowQueryLogTest.class.getClassLoader(), new Class<?>[] { PreparedStatement.class }, (stmtProxy, stmtMethod, stmtArgs) -> {
+                if (stmtMethod.getName().startsWith("set") && stmtArgs != null && stmtArgs.length == 2) {
+                    bindMethods.add(stmtMethod.getName());
+                }
+                return invoke(result, stmtMethod, stmtArgs);
+            });
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}